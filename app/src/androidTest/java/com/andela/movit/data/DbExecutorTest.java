@@ -0,0 +1,83 @@
+package com.andela.movit.data;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class DbExecutorTest {
+
+    private final DbExecutor executor = DbExecutor.getInstance();
+
+    @Test
+    public void testUiReadsRunBeforeBackgroundWork() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        List<String> order = new CopyOnWriteArrayList<>();
+        blockThreads(release);
+        executor.submit(getRecordingOperation(order, "background", done), null,
+                DbExecutor.PRIORITY_BACKGROUND);
+        executor.submit(getRecordingOperation(order, "ui", done), null);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("ui", order.get(0));
+        assertEquals("background", order.get(1));
+    }
+
+    @Test
+    public void testCancelledTaskIsNotRun() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        blockThreads(release);
+        DbTask stale = executor.submit(getRecordingOperation(order, "stale", null), null);
+        executor.submit(getRecordingOperation(order, "fresh", done), null);
+        stale.cancel();
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(stale.isCancelled());
+        assertEquals(1, order.size());
+        assertEquals("fresh", order.get(0));
+    }
+
+    private void blockThreads(final CountDownLatch release) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(new DbOperation() {
+                @Override
+                public DbResult execute() {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                    return new DbResult(null, null);
+                }
+            }, null);
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private DbOperation getRecordingOperation(final List<String> order, final String name,
+                                              final CountDownLatch done) {
+        return new DbOperation() {
+            @Override
+            public DbResult execute() {
+                order.add(name);
+                if (done != null) {
+                    done.countDown();
+                }
+                return new DbResult(name, null);
+            }
+        };
+    }
+}
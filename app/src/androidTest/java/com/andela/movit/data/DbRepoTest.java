@@ -5,13 +5,19 @@ import android.database.sqlite.SQLiteDatabase;
 import android.support.test.runner.AndroidJUnit4;
 
 import com.andela.movit.Movit;
+import com.andela.movit.config.ActivityTypes;
+import com.andela.movit.location.StayPointClusterer;
+import com.andela.movit.models.ActivityStat;
 import com.andela.movit.models.Movement;
+import com.andela.movit.models.TrackPoint;
 import com.andela.movit.models.Visit;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -32,7 +38,7 @@ public class DbRepoTest {
 
     @Before
     public void setup() throws Exception {
-        repo = new DbRepo(Movit.getApp());
+        repo = DbRepo.getInstance(Movit.getApp());
         movementDb = repo.getReadableDatabase();
     }
 
@@ -40,9 +46,9 @@ public class DbRepoTest {
     public void testWriteToDb() throws Exception {
         long newRowId = repo.addMovement(getTestMovement());
         assertTrue(newRowId > 0);
-        String[] projection = {ACT_NAME};
-        String selection = ACT_NAME + "= ?";
-        String[] selectionArgs = {standingStill};
+        String[] projection = {ACT_ID};
+        String selection = ID + "= ?";
+        String[] selectionArgs = {Long.toString(newRowId)};
         Cursor cursor = movementDb.query(
                 TABLE,
                 projection,
@@ -53,11 +59,25 @@ public class DbRepoTest {
                 null
         );
         assertTrue(cursor.moveToNext());
-        String activityName = cursor.getString(0);
-        assertEquals(standingStill, activityName);
+        assertEquals(ActivityTypes.STANDING_STILL, cursor.getInt(0));
         cursor.close();
     }
 
+    @Test
+    public void testPlaceNamesStoredOnce() {
+        repo.addMovement(getTestMovement());
+        repo.addMovement(getTestMovement());
+        Cursor cursor = movementDb.rawQuery("SELECT COUNT(*) FROM places WHERE name = ?",
+                new String[] {instrumentationCenter});
+        assertTrue(cursor.moveToNext());
+        assertEquals(1, cursor.getInt(0));
+        cursor.close();
+        List<Movement> movements = repo.getMovementsByLocation(instrumentationCenter, null, 1);
+        assertEquals(instrumentationCenter, movements.get(0).getPlaceName());
+        assertEquals(standingStill, movements.get(0).getActivityName());
+        assertEquals(ActivityTypes.STANDING_STILL, movements.get(0).getActivityId());
+    }
+
     @Test
     public void testGetByDate() {
         List<Movement> movements = repo.getMovementsByDate(new Date());
@@ -66,16 +86,265 @@ public class DbRepoTest {
 
     @Test
     public void testGetLocations() {
+        addPlace(1, "Location Lane " + System.currentTimeMillis());
         List<Visit> visits = repo.getVisits();
         assertTrue(visits.size() > 0);
     }
 
+    @Test
+    public void testPlacesFoundAsStaysAreSaved() {
+        Movement movement = addPlace(2, "Found Field " + System.currentTimeMillis());
+        assertTrue(movement.getClusterId() > 0);
+        List<Movement> movements = repo.getMovementsNear(movement.getLatitude(),
+                movement.getLongitude(), StayPointClusterer.MIN_POINTS);
+        assertEquals(StayPointClusterer.MIN_POINTS, movements.size());
+        for (Movement stay : movements) {
+            assertEquals(movement.getClusterId(), stay.getClusterId());
+        }
+        Visit visit = findVisit(repo.getVisits(), movement.getPlaceName());
+        assertNotNull(visit);
+        assertEquals(movement.getClusterId(), visit.getClusterId());
+    }
+
+    @Test
+    public void testVisitAggregatesUpdatedOnInsert() {
+        Movement movement = addPlace(3, "Aggregate Avenue " + System.currentTimeMillis());
+        Visit before = findVisit(repo.getVisits(), movement.getClusterId());
+        assertNotNull(before);
+        movement.setDuration(60000);
+        movement.setTimeStamp(movement.getTimeStamp() + 1000);
+        repo.addMovement(movement);
+        Visit visit = findVisit(repo.getVisits(), movement.getClusterId());
+        assertEquals(before.getDuration() + 60000, visit.getDuration());
+        assertEquals(before.getVisitCount() + 1, visit.getVisitCount());
+        assertEquals(movement.getTimeStamp(), visit.getLastSeen());
+    }
+
+    @Test
+    public void testVisitsKeyedByPlace() {
+        Movement movement = addPlace(4, "Cluster Close " + System.currentTimeMillis());
+        long clusterId = movement.getClusterId();
+        int count = findVisit(repo.getVisits(), clusterId).getVisitCount();
+        int movementCount = repo.getMovementsByCluster(clusterId, null, -1).size();
+        String newName = "Cluster Close Gate " + movement.getTimeStamp();
+        movement.setPlaceName(newName);
+        movement.setTimeStamp(movement.getTimeStamp() + 1000);
+        movement.setLatitude(movement.getLatitude() + 0.0001);
+        repo.addMovement(movement);
+        Visit visit = findVisit(repo.getVisits(), newName);
+        assertNotNull(visit);
+        assertEquals(clusterId, visit.getClusterId());
+        assertEquals(count + 1, visit.getVisitCount());
+        List<Movement> movements = repo.getMovementsByCluster(clusterId, null, -1);
+        assertEquals(movementCount + 1, movements.size());
+    }
+
+    @Test
+    public void testActivityStatsSplitAcrossHours() {
+        StatGranularity hour = StatGranularity.HOUR;
+        long bucketStart = hour.getBucketStart(System.currentTimeMillis()) - 48 * 3600000L;
+        Movement movement = getTestMovement();
+        movement.setPlaceName("Rollup Road " + movement.getTimeStamp());
+        movement.setTimeStamp(bucketStart + 3600000L + 600000L);
+        movement.setDuration(1200000L);
+        repo.addMovement(movement);
+        List<ActivityStat> stats = repo.getActivityStats(hour, bucketStart,
+                bucketStart + 2 * 3600000L, movement.getPlaceName());
+        assertEquals(2, stats.size());
+        assertEquals(600000L, stats.get(0).getDuration());
+        assertEquals(0, stats.get(0).getMovementCount());
+        assertEquals(600000L, stats.get(1).getDuration());
+        assertEquals(1, stats.get(1).getMovementCount());
+    }
+
+    @Test
+    public void testPlaceNamesBackfilled() {
+        StatGranularity day = StatGranularity.DAY;
+        Movement movement = addPlace(5, "Backfill Street " + System.currentTimeMillis());
+        movement.setPlaceName(null);
+        movement.setTimeStamp(movement.getTimeStamp() + 1000);
+        movement.setDuration(300000L);
+        long rowId = repo.addMovement(movement);
+        Visit before = findVisit(repo.getVisits(), movement.getClusterId());
+        assertNotNull(before);
+        Movement unnamed = null;
+        for (Movement candidate : repo.getMovementsWithoutPlace(100)) {
+            if (candidate.getId() == rowId) {
+                unnamed = candidate;
+            }
+        }
+        assertNotNull(unnamed);
+        String placeName = "Backfill Avenue " + movement.getTimeStamp();
+        unnamed.setPlaceName(placeName);
+        assertEquals(1, repo.setPlaceNames(Collections.singletonList(unnamed)));
+        assertEquals(0, repo.setPlaceNames(Collections.singletonList(unnamed)));
+        assertEquals(rowId, repo.getMovementsByLocation(placeName).get(0).getId());
+        Visit visit = findVisit(repo.getVisits(), placeName);
+        assertNotNull(visit);
+        assertEquals(before.getClusterId(), visit.getClusterId());
+        assertEquals(before.getDuration(), visit.getDuration());
+        long bucketStart = day.getBucketStart(movement.getTimeStamp());
+        List<ActivityStat> stats = repo.getActivityStats(day, bucketStart,
+                day.getNextBucketStart(bucketStart), placeName);
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.get(0).getMovementCount());
+    }
+
+    @Test
+    public void testFailedPlaceNamesDeferred() {
+        Movement movement = getTestMovement();
+        movement.setPlaceName(null);
+        long rowId = repo.addMovement(movement);
+        movement.setId(rowId);
+        assertEquals(0, repo.setPlaceNames(Collections.singletonList(movement)));
+        for (Movement candidate : repo.getMovementsWithoutPlace(100)) {
+            assertNotEquals(rowId, candidate.getId());
+        }
+    }
+
+    @Test
+    public void testGetMovementsNear() {
+        Movement near = getTestMovement();
+        near.setLatitude(-1.28330);
+        near.setLongitude(36.81660);
+        repo.addMovement(near);
+        Movement far = getTestMovement();
+        far.setLatitude(-1.29330);
+        far.setLongitude(36.81660);
+        repo.addMovement(far);
+        List<Movement> movements = repo.getMovementsNear(-1.28335, 36.81665, 100);
+        assertTrue(movements.size() > 0);
+        for (Movement movement : movements) {
+            assertTrue(Math.abs(movement.getLatitude() - near.getLatitude()) < 0.001);
+        }
+    }
+
+    @Test
+    public void testStaysNearbyShareCluster() {
+        Movement first = addPlace(6, instrumentationCenter);
+        Movement second = getTestMovement();
+        second.setLatitude(first.getLatitude() + 0.0001);
+        second.setLongitude(first.getLongitude() + 0.0001);
+        repo.addMovement(second);
+        assertTrue(second.getClusterId() > 0);
+        repo.reclusterMovements();
+        List<Movement> movements = repo.getMovementsNear(
+                first.getLatitude(), first.getLongitude(), 30);
+        assertTrue(movements.size() > 0);
+        for (Movement movement : movements) {
+            assertEquals(second.getClusterId(), movement.getClusterId());
+        }
+    }
+
     @Test
     public void testGetByPlaceName() {
         List<Movement> movements = repo.getMovementsByLocation(instrumentationCenter);
         assertTrue(movements.size() > 0);
     }
 
+    @Test
+    public void testGetByPlaceNameWithQuote() {
+        Movement movement = getTestMovement();
+        movement.setPlaceName("Kenyatta's Corner");
+        repo.addMovement(movement);
+        List<Movement> movements = repo.getMovementsByLocation("Kenyatta's Corner");
+        assertTrue(movements.size() > 0);
+    }
+
+    @Test
+    public void testCachedResultsInvalidatedOnInsert() {
+        String placeName = "Cache Crescent " + System.currentTimeMillis();
+        Movement movement = addPlace(7, placeName);
+        int count = StayPointClusterer.MIN_POINTS;
+        int dayCount = repo.getMovementsByDate(new Date()).size();
+        assertEquals(count, repo.getMovementsByLocation(placeName).size());
+        List<Movement> copy = repo.getMovementsByLocation(placeName);
+        copy.clear();
+        assertEquals(count, repo.getMovementsByLocation(placeName).size());
+        int visitCount = findVisit(repo.getVisits(), placeName).getVisitCount();
+        repo.addMovement(movement);
+        assertEquals(dayCount + 1, repo.getMovementsByDate(new Date()).size());
+        assertEquals(count + 1, repo.getMovementsByLocation(placeName).size());
+        assertEquals(visitCount + 1, findVisit(repo.getVisits(), placeName).getVisitCount());
+    }
+
+    @Test
+    public void testGetByDatePaged() {
+        repo.addMovement(getTestMovement());
+        repo.addMovement(getTestMovement());
+        List<Movement> firstPage = repo.getMovementsByDate(new Date(), null, 1);
+        assertEquals(1, firstPage.size());
+        Movement last = firstPage.get(0);
+        List<Movement> secondPage = repo.getMovementsByDate(new Date(), last, 1);
+        assertEquals(1, secondPage.size());
+        Movement next = secondPage.get(0);
+        assertTrue(next.getTimeStamp() < last.getTimeStamp()
+                || (next.getTimeStamp() == last.getTimeStamp() && next.getId() < last.getId()));
+    }
+
+    @Test
+    public void testTrackStoredBySession() {
+        long sessionId = System.currentTimeMillis();
+        List<TrackPoint> points = new ArrayList<>();
+        points.add(new TrackPoint(sessionId, sessionId + 2000, 6.5, 3.4));
+        points.add(new TrackPoint(sessionId, sessionId + 1000, 6.4, 3.3));
+        points.add(new TrackPoint(sessionId + 1, sessionId + 1500, 6.6, 3.5));
+        assertEquals(3, repo.addTrackPoints(points));
+        List<TrackPoint> track = repo.getTrack(sessionId);
+        assertEquals(2, track.size());
+        assertEquals(sessionId + 1000, track.get(0).getTimeStamp());
+        assertEquals(6.5, track.get(1).getLatitude(), 1e-9);
+    }
+
+    @Test
+    public void testIndexesCreated() {
+        String[] indexes = {
+                INDEX_TIMESTAMP,
+                INDEX_PLACE_TIMESTAMP,
+                INDEX_ACTIVITY_PLACE_DURATION,
+                INDEX_GRID_CELL,
+                INDEX_CLUSTER_ID
+        };
+        for (String index : indexes) {
+            Cursor cursor = movementDb.rawQuery(
+                    "SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                    new String[] {index});
+            assertTrue(cursor.moveToNext());
+            cursor.close();
+        }
+    }
+
+    private Visit findVisit(List<Visit> visits, String placeName) {
+        for (Visit visit : visits) {
+            if (placeName.equals(visit.getPlaceName())) {
+                return visit;
+            }
+        }
+        return null;
+    }
+
+    private Visit findVisit(List<Visit> visits, long clusterId) {
+        for (Visit visit : visits) {
+            if (visit.getClusterId() == clusterId) {
+                return visit;
+            }
+        }
+        return null;
+    }
+
+    private Movement addPlace(int place, String placeName) {
+        Movement movement = getTestMovement();
+        movement.setLatitude(10 + place * 0.01);
+        movement.setLongitude(20);
+        movement.setPlaceName(placeName);
+        movement.setDuration(1000);
+        for (int i = 0; i < StayPointClusterer.MIN_POINTS; i++) {
+            repo.addMovement(movement);
+            movement.setTimeStamp(movement.getTimeStamp() + 1);
+        }
+        return movement;
+    }
+
     private Movement getTestMovement() {
         Movement mv = new Movement();
         mv.setActivityName(standingStill);
@@ -1,23 +1,21 @@
 /**
  * This class handles the activity updates coming in from the Google PLay Activity Recognition API.
- * Every time an activity update comes in, it broadcasts it.
+ * Every activity update is fed to the {@code TransitionEngine}, and the new activity is published
+ * on the {@code EventBus} whenever the engine reports a transition.
  * */
 
 package com.andela.movit.activityrecognition;
 
 import android.app.IntentService;
 import android.content.Intent;
-import android.support.v4.content.LocalBroadcastManager;
+import android.os.SystemClock;
 
 import com.andela.movit.config.Constants;
+import com.andela.movit.events.EventBus;
 import com.andela.movit.utilities.FrameworkUtils;
 import com.google.android.gms.location.ActivityRecognitionResult;
 import com.google.android.gms.location.DetectedActivity;
 
-import static com.google.android.gms.location.DetectedActivity.*;
-
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 public class ActivityRecognitionService extends IntentService {
@@ -40,29 +38,17 @@ public class ActivityRecognitionService extends IntentService {
     }
 
     private void handleDetectedActivities(List<DetectedActivity> probableActivities) {
-        probableActivities = sortActivities(probableActivities);
-        String activityName = FrameworkUtils.getActivityName(probableActivities.get(0));
-        broadcastActivityName(activityName);
-    }
-
-    private List<DetectedActivity> sortActivities(List<DetectedActivity> probableActivities) {
-        Collections.sort(probableActivities, getComparator());
-        return probableActivities;
-    }
-
-    private Comparator<? super DetectedActivity> getComparator() {
-        return new Comparator<DetectedActivity>() {
-            @Override
-            public int compare(DetectedActivity lhs, DetectedActivity rhs) {
-                return rhs.getConfidence() - lhs.getConfidence();
-            }
-        };
-    }
-
-    private void broadcastActivityName(String activityName) {
-        Intent broadcastIntent = new Intent(Constants.ACTIVITY_NAME.getValue());
-        broadcastIntent.putExtra(Constants.ACTIVITY_NAME.getValue(), activityName);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(broadcastIntent);
+        TransitionEngine engine = TransitionEngine.getInstance();
+        long time = SystemClock.elapsedRealtime();
+        engine.startDetection(time);
+        for (DetectedActivity activity : probableActivities) {
+            String activityName = FrameworkUtils.getActivityName(activity);
+            engine.addSample(activityName, activity.getConfidence(), time);
+        }
+        String transition = engine.evaluate(time);
+        if (transition != null) {
+            EventBus.getInstance().publishActivity(transition);
+        }
     }
 
     private boolean hasResult(Intent intent) {
@@ -9,16 +9,12 @@ package com.andela.movit.activityrecognition;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.content.LocalBroadcastManager;
 
-import com.andela.movit.config.Constants;
+import com.andela.movit.events.EventBus;
 import com.andela.movit.location.IncomingStringCallback;
-import com.andela.movit.receivers.StringBroadcastReceiver;
-import com.andela.movit.utilities.FrameworkUtils;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.ResultCallback;
@@ -30,9 +26,9 @@ public class RecognitionHelper implements
         GoogleApiClient.OnConnectionFailedListener,
         ResultCallback<Status> {
 
-    private IncomingStringCallback activityCallback;
+    private static final long DETECTION_INTERVAL = 5000;
 
-    private StringBroadcastReceiver activityBroadcastReceiver;
+    private IncomingStringCallback activityCallback;
 
     private Context context;
 
@@ -59,7 +55,8 @@ public class RecognitionHelper implements
      * */
 
     public void connect() {
-        registerReceiver();
+        TransitionEngine.getInstance().reset();
+        subscribe();
         apiClient.connect();
     }
 
@@ -69,14 +66,14 @@ public class RecognitionHelper implements
 
     public void disconnect() {
         if (apiClient.isConnected()) {
-            unregisterReceiver();
+            unsubscribe();
             stopActivityRecognition();
             apiClient.disconnect();
         }
     }
 
-    private void unregisterReceiver() {
-        FrameworkUtils.unregisterReceiver(context, activityBroadcastReceiver);
+    private void unsubscribe() {
+        EventBus.getInstance().unsubscribe(activityCallback);
     }
 
     private void buildApiClient() {
@@ -87,17 +84,8 @@ public class RecognitionHelper implements
                 .build();
     }
 
-    private void registerReceiver() {
-        activityBroadcastReceiver = FrameworkUtils.registerStringReceiver(
-                context, Constants.ACTIVITY_NAME.getValue());
-        activityBroadcastReceiver.setIncomingStringCallback(activityCallback);
-        LocalBroadcastManager
-                .getInstance(context)
-                .registerReceiver(activityBroadcastReceiver, getFilter());
-    }
-
-    private IntentFilter getFilter() {
-        return new IntentFilter(Constants.ACTIVITY_NAME.getValue());
+    private void subscribe() {
+        EventBus.getInstance().subscribeActivity(activityCallback);
     }
 
     @Override
@@ -108,7 +96,7 @@ public class RecognitionHelper implements
     private void startActivityRecognition() {
         pendingIntent = getPendingIntent();
         ActivityRecognition.ActivityRecognitionApi
-                .requestActivityUpdates(apiClient, 100, pendingIntent);
+                .requestActivityUpdates(apiClient, DETECTION_INTERVAL, pendingIntent);
     }
 
     private void stopActivityRecognition() {
@@ -0,0 +1,166 @@
+/**
+ * This class smooths the stream of detected activities and reports only real transitions. Every
+ * detection is kept for a sliding window, and the activity with the highest total confidence
+ * across the window leads. A leading activity only becomes the current activity once its average
+ * confidence is high enough and it has stayed in the lead for a minimum dwell time, so brief
+ * flapping between activities is absorbed instead of being reported.
+ * */
+
+package com.andela.movit.activityrecognition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class TransitionEngine {
+
+    private static final String UNKNOWN = "Unknown";
+
+    private static final long WINDOW = 30000;
+
+    private static final long MIN_DWELL = 20000;
+
+    private static final int MIN_CONFIDENCE = 50;
+
+    private static TransitionEngine instance;
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private final Deque<Long> detectionTimes = new ArrayDeque<>();
+
+    private String currentActivity = UNKNOWN;
+
+    private String candidate;
+
+    private long candidateSince;
+
+    /**
+     * Returns the process-wide engine, creating it on first use.
+     * */
+
+    public static synchronized TransitionEngine getInstance() {
+        if (instance == null) {
+            instance = new TransitionEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Forgets all samples and returns to the unknown activity, so that the next stable activity
+     * is reported as a transition.
+     * */
+
+    public synchronized void reset() {
+        samples.clear();
+        detectionTimes.clear();
+        currentActivity = UNKNOWN;
+        candidate = null;
+    }
+
+    /**
+     * Starts a new detection. All samples added until the next call belong to this detection.
+     * @param time the time of the detection (in milliseconds, from a monotonic clock).
+     * */
+
+    public synchronized void startDetection(long time) {
+        detectionTimes.addLast(time);
+    }
+
+    /**
+     * Adds one probable activity of the current detection. Several detected activities can share
+     * a name (e.g. on foot and walking), so an activity added twice in the same detection only
+     * counts once, at its highest confidence.
+     * @param activityName the name of the activity.
+     * @param confidence the confidence of the detection, from 0 to 100.
+     * @param time the time of the detection.
+     * */
+
+    public synchronized void addSample(String activityName, int confidence, long time) {
+        if (UNKNOWN.equals(activityName)) {
+            return;
+        }
+        Iterator<Sample> detection = samples.descendingIterator();
+        while (detection.hasNext()) {
+            Sample sample = detection.next();
+            if (sample.time != time) {
+                break;
+            }
+            if (sample.activityName.equals(activityName)) {
+                sample.confidence = Math.max(sample.confidence, confidence);
+                return;
+            }
+        }
+        samples.addLast(new Sample(activityName, confidence, time));
+    }
+
+    /**
+     * Evaluates the window after a detection has been added.
+     * @param time the time of the detection.
+     * @return the name of the new activity if a transition has happened, or null otherwise.
+     * */
+
+    public synchronized String evaluate(long time) {
+        evictOldSamples(time);
+        String leader = getLeader();
+        if (leader == null || leader.equals(currentActivity)) {
+            candidate = null;
+            return null;
+        }
+        if (!leader.equals(candidate)) {
+            candidate = leader;
+            candidateSince = time;
+        }
+        if (UNKNOWN.equals(currentActivity) || time - candidateSince >= MIN_DWELL) {
+            currentActivity = leader;
+            candidate = null;
+            return leader;
+        }
+        return null;
+    }
+
+    private void evictOldSamples(long time) {
+        while (!samples.isEmpty() && time - samples.peekFirst().time > WINDOW) {
+            samples.removeFirst();
+        }
+        while (!detectionTimes.isEmpty() && time - detectionTimes.peekFirst() > WINDOW) {
+            detectionTimes.removeFirst();
+        }
+    }
+
+    private String getLeader() {
+        Map<String, Integer> scores = new HashMap<>();
+        String leader = null;
+        int leaderScore = 0;
+        for (Sample sample : samples) {
+            Integer score = scores.get(sample.activityName);
+            int newScore = (score == null ? 0 : score) + sample.confidence;
+            scores.put(sample.activityName, newScore);
+            if (newScore > leaderScore) {
+                leader = sample.activityName;
+                leaderScore = newScore;
+            }
+        }
+        int detectionCount = Math.max(1, detectionTimes.size());
+        if (leaderScore / detectionCount < MIN_CONFIDENCE) {
+            return null;
+        }
+        return leader;
+    }
+
+    private static class Sample {
+
+        private final String activityName;
+
+        private int confidence;
+
+        private final long time;
+
+        private Sample(String activityName, int confidence, long time) {
+            this.activityName = activityName;
+            this.confidence = confidence;
+            this.time = time;
+        }
+    }
+}
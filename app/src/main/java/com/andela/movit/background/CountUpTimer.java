@@ -1,40 +1,28 @@
 /**
  * This class implements a simple count-up timer, with operations for starting, stopping and
- * resetting a timer, and for setting a callback to be invoked every time the timer ticks.
+ * resetting a timer. Elapsed time is read from the monotonic {@code SystemClock.elapsedRealtime}
+ * clock, so it is not affected by changes to the wall clock.
  * */
 
 package com.andela.movit.background;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import android.os.SystemClock;
 
 public class CountUpTimer {
 
-    private TimerTickListener listener;
+    private long accumulatedTime = 0;
 
-    private long baseTime = 0;
-
-    private Timer timer;
+    private long startTime;
 
     private boolean active;
 
-    /**
-     * Sets the callback to be invoked when the timer ticks.
-     * @param listener The callback to be invoked.
-     * */
-
-    public void setListener(TimerTickListener listener) {
-        this.listener = listener;
-    }
-
     /**
      * Starts the timer.
      * */
 
-    public void start() {
+    public synchronized void start() {
         if (!active) {
-            timer = new Timer("CountUpTimer");
-            timer.scheduleAtFixedRate(getTask(), 0, 1000);
+            startTime = SystemClock.elapsedRealtime();
             active = true;
         }
     }
@@ -43,9 +31,9 @@ public class CountUpTimer {
      * Stops the timer.
      * */
 
-    public void stop() {
+    public synchronized void stop() {
         if (active) {
-            timer.cancel();
+            accumulatedTime += SystemClock.elapsedRealtime() - startTime;
             active = false;
         }
     }
@@ -54,25 +42,19 @@ public class CountUpTimer {
      * Resets the timer.
      * */
 
-    public void reset() {
-        baseTime = 0;
+    public synchronized void reset() {
+        accumulatedTime = 0;
+        startTime = SystemClock.elapsedRealtime();
     }
 
     /**
      * Returns the value (in milliseconds) that has elapsed since the timer was started.
      * */
 
-    public long getElapsedTime() {
-        return baseTime;
-    }
-
-    private TimerTask getTask() {
-        return new TimerTask() {
-            @Override
-            public void run() {
-                baseTime += 1000;
-                listener.onTick(baseTime);
-            }
-        };
+    public synchronized long getElapsedTime() {
+        if (active) {
+            return accumulatedTime + SystemClock.elapsedRealtime() - startTime;
+        }
+        return accumulatedTime;
     }
 }
@@ -6,17 +6,15 @@
 package com.andela.movit.background;
 
 import android.content.Context;
-import android.content.Intent;
-import android.support.v4.content.LocalBroadcastManager;
+import android.os.SystemClock;
 
 import com.andela.movit.Movit;
-import com.andela.movit.config.Constants;
+import com.andela.movit.events.TrackingStateStream;
 import com.andela.movit.location.IncomingStringCallback;
 import com.andela.movit.location.LocationCallback;
 import com.andela.movit.models.Movement;
 import com.andela.movit.utilities.PreferenceHelper;
 import com.andela.movit.utilities.TrackingHelper;
-import com.andela.movit.utilities.FrameworkUtils;
 
 public class ServiceHelper {
 
@@ -49,11 +47,11 @@ public class ServiceHelper {
         if (movement != null) {
             currentActivity = movement.getActivityName();
         }
+        publishLocation(movement);
     }
 
     private void initCounter() {
         counter = new CountUpTimer();
-        counter.setListener(getTickListener());
     }
 
     private void initActivity() {
@@ -77,10 +75,11 @@ public class ServiceHelper {
      * */
 
     public void stopTracking() {
-        trackingHelper.stopTracking();
         counter.stop();
         logMovement(currentActivity);
+        trackingHelper.stopTracking();
         Movit.getApp().setTracking(false);
+        TrackingStateStream.getInstance().publishSession(SystemClock.elapsedRealtime(), false);
     }
 
     private void logMovement(String activityName) {
@@ -94,15 +93,7 @@ public class ServiceHelper {
         counter.stop();
         counter.reset();
         counter.start();
-    }
-
-    private TimerTickListener getTickListener() {
-        return new TimerTickListener() {
-            @Override
-            public void onTick(long elapsedTime) {
-                broadcastLocation(movement);
-            }
-        };
+        TrackingStateStream.getInstance().publishSession(SystemClock.elapsedRealtime(), true);
     }
 
     private void prepareHelper() {
@@ -126,14 +117,12 @@ public class ServiceHelper {
     private void handleLocationChange(Movement mv) {
         movement = mv;
         trackingHelper.setMovement(mv);
-        broadcastLocation(mv);
+        publishLocation(mv);
     }
 
-    private void broadcastLocation(Movement movement) {
+    private void publishLocation(Movement movement) {
         if (movement != null) {
-            Intent intent = new Intent(Constants.LOCATION.getValue());
-            intent = FrameworkUtils.putMovementInIntent(movement, intent);
-            FrameworkUtils.broadcastIntent(context, intent);
+            TrackingStateStream.getInstance().publishMovement(new Movement(movement));
         }
     }
 
@@ -144,7 +133,6 @@ public class ServiceHelper {
                 if (trackingHelper.hasActivityChanged(activityName)) {
                     handleActivityChange(activityName);
                 }
-                broadcastActivityStatement();
             }
         };
     }
@@ -154,15 +142,8 @@ public class ServiceHelper {
         currentActivity = activityName;
         trackingHelper.setCurrentActivity(currentActivity);
         logMovement(previousActivity);
+        TrackingStateStream.getInstance().publishActivity(currentActivity);
         restartCounter();
     }
 
-    private void broadcastActivityStatement() {
-        Intent intent = new Intent(Constants.STATEMENT.getValue());
-        intent.putExtra(
-                Constants.STATEMENT.getValue(),
-                currentActivity);
-        FrameworkUtils.broadcastIntent(context, intent);
-    }
-
 }
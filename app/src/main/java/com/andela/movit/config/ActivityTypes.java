@@ -0,0 +1,68 @@
+/**
+ * This class defines the fixed ids of the activities the app can detect. The same ids key the
+ * {@code activity_types} table, so an activity can be identified by its id all the way from the
+ * database to the screen. Activity names that are not listed here are given ids above
+ * {@code LAST_BUILT_IN} when they are first stored.
+ * */
+
+package com.andela.movit.config;
+
+public class ActivityTypes {
+
+    public static final int NONE = 0;
+
+    public static final int STANDING_STILL = 1;
+
+    public static final int WALKING = 2;
+
+    public static final int RUNNING = 3;
+
+    public static final int CYCLING = 4;
+
+    public static final int TRAVELLING = 5;
+
+    public static final int ON_FOOT = 6;
+
+    public static final int UNKNOWN = 7;
+
+    public static final int LAST_BUILT_IN = UNKNOWN;
+
+    private static final String[] NAMES = {
+            null,
+            "Standing Still",
+            "Walking",
+            "Running",
+            "Cycling",
+            "Travelling",
+            "On Foot",
+            "Unknown"
+    };
+
+    /**
+     * Returns the id of a built-in activity.
+     * @param activityName the name of the activity.
+     * @return the id of the activity, or {@code NONE} if it is not built in.
+     * */
+
+    public static int getId(String activityName) {
+        for (int id = 1; id <= LAST_BUILT_IN; id++) {
+            if (NAMES[id].equals(activityName)) {
+                return id;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the name of a built-in activity.
+     * @param id the id of the activity.
+     * @return the name of the activity, or null if the id is not built in.
+     * */
+
+    public static String getName(long id) {
+        if (id < 1 || id > LAST_BUILT_IN) {
+            return null;
+        }
+        return NAMES[(int)id];
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * This class maintains the {@code activity_stats} table, which rolls up the time spent on each
+ * activity at each place into hourly, daily and weekly buckets. A movement covers the interval
+ * that ends at its timestamp and lasts for its duration; that interval is split across every
+ * bucket it overlaps, and the movement is counted in the bucket where it ends. The rollups are
+ * updated as every movement is saved, so range queries read a handful of buckets instead of
+ * every movement in the range. Activities and places are referred to by
+ * their dictionary ids, with place id 0 for movements whose place is not known until
+ * {@code movePlace} moves them to the place they were resolved to.
+ * */
+
+package com.andela.movit.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.andela.movit.models.ActivityStat;
+import com.andela.movit.models.Movement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ActivityStats {
+
+    static final String TABLE = "activity_stats";
+
+    static final String GRANULARITY = "granularity";
+
+    static final String BUCKET_START = "bucket_start";
+
+    static final String MOVEMENT_COUNT = "movement_count";
+
+    private static final String CREATE = "CREATE TABLE IF NOT EXISTS "
+            + TABLE + " ("
+            + GRANULARITY + " INTEGER NOT NULL, "
+            + BUCKET_START + " BIGINT NOT NULL, "
+            + DbRepo.ACT_ID + " INTEGER NOT NULL, "
+            + DbRepo.PLC_ID + " INTEGER NOT NULL, "
+            + DbRepo.DURATION + " BIGINT NOT NULL, "
+            + MOVEMENT_COUNT + " INTEGER NOT NULL, PRIMARY KEY ("
+            + GRANULARITY + ", "
+            + BUCKET_START + ", "
+            + DbRepo.ACT_ID + ", "
+            + DbRepo.PLC_ID + "));";
+
+    private static final String GET_MOVEMENTS = "SELECT "
+            + DbRepo.ACT_ID + ", "
+            + DbRepo.PLC_ID + ", "
+            + DbRepo.TIMESTAMP + ", "
+            + DbRepo.DURATION + " FROM "
+            + DbRepo.TABLE + ";";
+
+    private static final String UPDATE = "UPDATE "
+            + TABLE + " SET "
+            + DbRepo.DURATION + " = " + DbRepo.DURATION + " + ?, "
+            + MOVEMENT_COUNT + " = " + MOVEMENT_COUNT + " + ? WHERE "
+            + GRANULARITY + " = ? AND "
+            + BUCKET_START + " = ? AND "
+            + DbRepo.ACT_ID + " = ? AND "
+            + DbRepo.PLC_ID + " = ?;";
+
+    private static final String INSERT = "INSERT INTO "
+            + TABLE + " ("
+            + DbRepo.DURATION + ", "
+            + MOVEMENT_COUNT + ", "
+            + GRANULARITY + ", "
+            + BUCKET_START + ", "
+            + DbRepo.ACT_ID + ", "
+            + DbRepo.PLC_ID + ") VALUES (?, ?, ?, ?, ?, ?);";
+
+    private static final String IN_RANGE = GRANULARITY + " = ? AND "
+            + BUCKET_START + " >= ? AND "
+            + BUCKET_START + " < ? ";
+
+    private static final String BY_BUCKET_AND_ACTIVITY = "GROUP BY "
+            + BUCKET_START + ", "
+            + DbRepo.ACT_ID + " ORDER BY "
+            + BUCKET_START + ", "
+            + DbRepo.ACT_ID + ";";
+
+    private static final String STAT_COLUMNS = BUCKET_START + ", "
+            + DbRepo.ACT_ID + ", SUM("
+            + DbRepo.DURATION + "), SUM("
+            + MOVEMENT_COUNT + ")";
+
+    private static final String GET_STATS = "SELECT "
+            + STAT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + IN_RANGE
+            + BY_BUCKET_AND_ACTIVITY;
+
+    private static final String GET_STATS_AT_PLACE = "SELECT "
+            + STAT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + IN_RANGE + "AND "
+            + DbRepo.PLC_ID + " = ? "
+            + BY_BUCKET_AND_ACTIVITY;
+
+    private final SQLiteDatabase db;
+
+    private final Dictionary activityTypes;
+
+    private SQLiteStatement updateStatement;
+
+    private SQLiteStatement insertStatement;
+
+    ActivityStats(SQLiteDatabase db, Dictionary activityTypes) {
+        this.db = db;
+        this.activityTypes = activityTypes;
+    }
+
+    /**
+     * Creates the rollup table and fills it from the movements already in the database.
+     * */
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(CREATE);
+        ActivityStats stats = new ActivityStats(db, null);
+        Cursor cursor = db.rawQuery(GET_MOVEMENTS, null);
+        while (cursor.moveToNext()) {
+            stats.record(cursor.getLong(0), cursor.getLong(1),
+                    cursor.getLong(2), cursor.getLong(3));
+        }
+        cursor.close();
+    }
+
+    /**
+     * Adds a newly saved movement to the rollups. Must be called inside the transaction that
+     * saved the movement.
+     * */
+
+    void record(Movement movement, long activityId, long placeId) {
+        record(activityId, placeId, movement.getTimeStamp(), movement.getDuration());
+    }
+
+    /**
+     * Moves a saved movement whose place was not known into the rollups of the place it has been
+     * resolved to. Must be called inside the transaction that updated the movement.
+     * */
+
+    void movePlace(Movement movement, long activityId, long placeId) {
+        record(activityId, 0, movement.getTimeStamp(), movement.getDuration(), -1);
+        record(activityId, placeId, movement.getTimeStamp(), movement.getDuration(), 1);
+    }
+
+    private void record(long activityId, long placeId, long timestamp, long duration) {
+        record(activityId, placeId, timestamp, duration, 1);
+    }
+
+    private void record(long activityId, long placeId, long timestamp, long duration, int sign) {
+        long start = timestamp - Math.max(0, duration);
+        for (StatGranularity granularity : StatGranularity.values()) {
+            long bucketStart = granularity.getBucketStart(start);
+            while (true) {
+                long nextBucketStart = granularity.getNextBucketStart(bucketStart);
+                long overlap = Math.min(timestamp, nextBucketStart) - Math.max(start, bucketStart);
+                boolean isLastBucket = timestamp < nextBucketStart;
+                addToBucket(granularity, bucketStart, activityId, placeId,
+                        sign * Math.max(0, overlap), isLastBucket ? sign : 0);
+                if (isLastBucket) {
+                    break;
+                }
+                bucketStart = nextBucketStart;
+            }
+        }
+    }
+
+    private void addToBucket(StatGranularity granularity, long bucketStart, long activityId,
+                             long placeId, long duration, int count) {
+        if (updateStatement == null) {
+            updateStatement = db.compileStatement(UPDATE);
+            insertStatement = db.compileStatement(INSERT);
+        }
+        SQLiteStatement statement = updateStatement;
+        bindBucket(statement, granularity, bucketStart, activityId, placeId, duration, count);
+        if (statement.executeUpdateDelete() == 0) {
+            statement = insertStatement;
+            bindBucket(statement, granularity, bucketStart, activityId, placeId, duration, count);
+            statement.executeInsert();
+        }
+    }
+
+    private void bindBucket(SQLiteStatement statement, StatGranularity granularity,
+                            long bucketStart, long activityId, long placeId,
+                            long duration, int count) {
+        statement.bindLong(1, duration);
+        statement.bindLong(2, count);
+        statement.bindLong(3, granularity.getCode());
+        statement.bindLong(4, bucketStart);
+        statement.bindLong(5, activityId);
+        statement.bindLong(6, placeId);
+    }
+
+    /**
+     * Fetches the time spent on each activity, per bucket, across all places.
+     * */
+
+    List<ActivityStat> getStats(StatGranularity granularity, long from, long to) {
+        String[] args = getRangeArgs(granularity, from, to);
+        return extractStatsFromCursor(db.rawQuery(GET_STATS, args), null);
+    }
+
+    /**
+     * Fetches the time spent on each activity, per bucket, at one place.
+     * */
+
+    List<ActivityStat> getStatsAtPlace(StatGranularity granularity, long from, long to,
+                                       long placeId, String placeName) {
+        String[] rangeArgs = getRangeArgs(granularity, from, to);
+        String[] args = {rangeArgs[0], rangeArgs[1], rangeArgs[2], Long.toString(placeId)};
+        return extractStatsFromCursor(db.rawQuery(GET_STATS_AT_PLACE, args), placeName);
+    }
+
+    private String[] getRangeArgs(StatGranularity granularity, long from, long to) {
+        return new String[] {
+                Integer.toString(granularity.getCode()),
+                Long.toString(granularity.getBucketStart(from)),
+                Long.toString(to)
+        };
+    }
+
+    private List<ActivityStat> extractStatsFromCursor(Cursor cursor, String placeName) {
+        List<ActivityStat> stats = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            ActivityStat stat = new ActivityStat();
+            stat.setBucketStart(cursor.getLong(0));
+            stat.setActivityName(activityTypes.getName(cursor.getLong(1)));
+            stat.setPlaceName(placeName);
+            stat.setDuration(cursor.getLong(2));
+            stat.setMovementCount(cursor.getInt(3));
+            stats.add(stat);
+        }
+        cursor.close();
+        return stats;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * This class holds a set of archived movements column by column, in the units they are stored
+ * in: dictionary ids for activities, places and clusters, and fixed-point coordinates.
+ * */
+
+package com.andela.movit.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+class ArchiveColumns {
+
+    final int size;
+
+    final long[] ids;
+
+    final long[] timestamps;
+
+    final int[] latitudes;
+
+    final int[] longitudes;
+
+    final long[] durations;
+
+    final long[] activityIds;
+
+    final long[] placeIds;
+
+    final long[] clusterIds;
+
+    ArchiveColumns(int size) {
+        this.size = size;
+        ids = new long[size];
+        timestamps = new long[size];
+        latitudes = new int[size];
+        longitudes = new int[size];
+        durations = new long[size];
+        activityIds = new long[size];
+        placeIds = new long[size];
+        clusterIds = new long[size];
+    }
+
+    /**
+     * Copies one row of another set of columns into a row of this one.
+     * */
+
+    void copyRow(ArchiveColumns source, int sourceRow, int row) {
+        ids[row] = source.ids[sourceRow];
+        timestamps[row] = source.timestamps[sourceRow];
+        latitudes[row] = source.latitudes[sourceRow];
+        longitudes[row] = source.longitudes[sourceRow];
+        durations[row] = source.durations[sourceRow];
+        activityIds[row] = source.activityIds[sourceRow];
+        placeIds[row] = source.placeIds[sourceRow];
+        clusterIds[row] = source.clusterIds[sourceRow];
+    }
+
+    /**
+     * Returns the rows of two sets of columns together, sorted by timestamp and then id, with
+     * rows of the second set replacing rows of the first set that have the same id and timestamp.
+     * Rows that only share an id are different movements, as ids were reused before they were
+     * made monotonic.
+     * */
+
+    static ArchiveColumns merge(ArchiveColumns first, ArchiveColumns second) {
+        final ArchiveColumns all = new ArchiveColumns(first.size + second.size);
+        for (int i = 0; i < first.size; i++) {
+            all.copyRow(first, i, i);
+        }
+        for (int i = 0; i < second.size; i++) {
+            all.copyRow(second, i, first.size + i);
+        }
+        Integer[] order = new Integer[all.size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                if (all.timestamps[left] != all.timestamps[right]) {
+                    return all.timestamps[left] < all.timestamps[right] ? -1 : 1;
+                }
+                if (all.ids[left] != all.ids[right]) {
+                    return all.ids[left] < all.ids[right] ? -1 : 1;
+                }
+                return right - left;
+            }
+        });
+        int uniqueCount = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || !isSameRow(all, order[i], order[i - 1])) {
+                uniqueCount++;
+            }
+        }
+        ArchiveColumns merged = new ArchiveColumns(uniqueCount);
+        int row = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || !isSameRow(all, order[i], order[i - 1])) {
+                merged.copyRow(all, order[i], row++);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isSameRow(ArchiveColumns columns, int left, int right) {
+        return columns.ids[left] == columns.ids[right]
+                && columns.timestamps[left] == columns.timestamps[right];
+    }
+}
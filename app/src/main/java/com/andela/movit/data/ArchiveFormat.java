@@ -0,0 +1,85 @@
+/**
+ * This class defines the layout of movement archive files. An archive holds one month of
+ * movements, sorted by time, stored column by column. A header gives the row count, the first
+ * timestamp and id, and the offset and length of every column. Timestamps and ids are stored as
+ * variable-length deltas from the previous row, coordinates as fixed-point integers in units of
+ * 1e-7 degrees, and activities, places and clusters as variable-length dictionary ids, with 0
+ * for no value.
+ * */
+
+package com.andela.movit.data;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+class ArchiveFormat {
+
+    static final int MAGIC = 0x4d564131;
+
+    static final int TIMESTAMPS = 0;
+
+    static final int IDS = 1;
+
+    static final int LATITUDES = 2;
+
+    static final int LONGITUDES = 3;
+
+    static final int DURATIONS = 4;
+
+    static final int ACTIVITY_IDS = 5;
+
+    static final int PLACE_IDS = 6;
+
+    static final int CLUSTER_IDS = 7;
+
+    static final int COLUMN_COUNT = 8;
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + COLUMN_COUNT * 8;
+
+    static final double E7 = 1e7;
+
+    /**
+     * Appends a value as an unsigned variable-length integer, seven bits per byte.
+     * */
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int)((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+
+    /**
+     * Appends a signed value as a variable-length integer, keeping small negative values short.
+     * */
+
+    static void writeSignedVarLong(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads an unsigned variable-length integer at the buffer's position.
+     * */
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long)(b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads a signed variable-length integer at the buffer's position.
+     * */
+
+    static long readSignedVarLong(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
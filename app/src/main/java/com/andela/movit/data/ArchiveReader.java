@@ -0,0 +1,140 @@
+/**
+ * This class reads a movement archive file through a read-only memory mapping. Fixed-width
+ * columns (the coordinates) are read in place from the mapping; variable-length columns are
+ * decoded in one sequential pass the first time they are needed, and kept for later queries.
+ * */
+
+package com.andela.movit.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+class ArchiveReader {
+
+    private final ByteBuffer buffer;
+
+    private final int rowCount;
+
+    private final long firstTimestamp;
+
+    private final long firstId;
+
+    private final int[] offsets = new int[ArchiveFormat.COLUMN_COUNT];
+
+    private final long[][] decodedColumns = new long[ArchiveFormat.COLUMN_COUNT][];
+
+    private ArchiveReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != ArchiveFormat.MAGIC) {
+            throw new IOException("Not a movement archive");
+        }
+        rowCount = buffer.getInt(4);
+        firstTimestamp = buffer.getLong(8);
+        firstId = buffer.getLong(16);
+        for (int i = 0; i < ArchiveFormat.COLUMN_COUNT; i++) {
+            offsets[i] = buffer.getInt(24 + i * 8);
+        }
+    }
+
+    /**
+     * Maps an archive file into memory.
+     * @param file the archive file.
+     * @throws IOException if the file cannot be read or is not an archive.
+     * */
+
+    static ArchiveReader open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ArchiveReader(buffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    long getTimestamp(int row) {
+        return getColumn(ArchiveFormat.TIMESTAMPS)[row];
+    }
+
+    long getId(int row) {
+        return getColumn(ArchiveFormat.IDS)[row];
+    }
+
+    int getLatitudeE7(int row) {
+        return buffer.getInt(offsets[ArchiveFormat.LATITUDES] + row * 4);
+    }
+
+    int getLongitudeE7(int row) {
+        return buffer.getInt(offsets[ArchiveFormat.LONGITUDES] + row * 4);
+    }
+
+    long getDuration(int row) {
+        return getColumn(ArchiveFormat.DURATIONS)[row];
+    }
+
+    long getActivityId(int row) {
+        return getColumn(ArchiveFormat.ACTIVITY_IDS)[row];
+    }
+
+    long getPlaceId(int row) {
+        return getColumn(ArchiveFormat.PLACE_IDS)[row];
+    }
+
+    long getClusterId(int row) {
+        return getColumn(ArchiveFormat.CLUSTER_IDS)[row];
+    }
+
+    /**
+     * Reads every row of the archive.
+     * */
+
+    ArchiveColumns readAll() {
+        ArchiveColumns columns = new ArchiveColumns(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            columns.ids[row] = getId(row);
+            columns.timestamps[row] = getTimestamp(row);
+            columns.latitudes[row] = getLatitudeE7(row);
+            columns.longitudes[row] = getLongitudeE7(row);
+            columns.durations[row] = getDuration(row);
+            columns.activityIds[row] = getActivityId(row);
+            columns.placeIds[row] = getPlaceId(row);
+            columns.clusterIds[row] = getClusterId(row);
+        }
+        return columns;
+    }
+
+    private synchronized long[] getColumn(int column) {
+        if (decodedColumns[column] == null) {
+            decodedColumns[column] = decodeColumn(column);
+        }
+        return decodedColumns[column];
+    }
+
+    private long[] decodeColumn(int column) {
+        ByteBuffer columnBuffer = buffer.duplicate();
+        columnBuffer.position(offsets[column]);
+        long[] values = new long[rowCount];
+        long previous = column == ArchiveFormat.TIMESTAMPS ? firstTimestamp : firstId;
+        for (int row = 0; row < rowCount; row++) {
+            if (column == ArchiveFormat.TIMESTAMPS) {
+                previous += ArchiveFormat.readVarLong(columnBuffer);
+                values[row] = previous;
+            } else if (column == ArchiveFormat.IDS) {
+                previous += ArchiveFormat.readSignedVarLong(columnBuffer);
+                values[row] = previous;
+            } else {
+                values[row] = ArchiveFormat.readVarLong(columnBuffer);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * This class answers movement queries from the monthly archives, so that {@code DbRepo} can serve
+ * archived and live movements through the same query methods. Archives are scanned newest month
+ * first and newest row first, and scanning stops as soon as a page is full.
+ * */
+
+package com.andela.movit.data;
+
+import com.andela.movit.models.Movement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ArchivedMovements {
+
+    private static final Comparator<Movement> NEWEST_FIRST = new Comparator<Movement>() {
+        @Override
+        public int compare(Movement left, Movement right) {
+            if (left.getTimeStamp() != right.getTimeStamp()) {
+                return left.getTimeStamp() > right.getTimeStamp() ? -1 : 1;
+            }
+            if (left.getId() != right.getId()) {
+                return left.getId() > right.getId() ? -1 : 1;
+            }
+            return 0;
+        }
+    };
+
+    private final MovementArchive archive;
+
+    private final Dictionary activityTypes;
+
+    private final Dictionary places;
+
+    ArchivedMovements(MovementArchive archive, Dictionary activityTypes, Dictionary places) {
+        this.archive = archive;
+        this.activityTypes = activityTypes;
+        this.places = places;
+    }
+
+    /**
+     * Fetches archived movements made strictly between two times.
+     * */
+
+    List<Movement> getByTime(final long from, final long to, Movement after, int limit) {
+        return scan(archive.open(from, to), after, limit, new RowFilter() {
+            @Override
+            public boolean matches(ArchiveReader reader, int row) {
+                long timestamp = reader.getTimestamp(row);
+                return timestamp > from && timestamp < to;
+            }
+        });
+    }
+
+    /**
+     * Fetches archived movements made at a place.
+     * */
+
+    List<Movement> getByPlace(final long placeId, Movement after, int limit) {
+        return scan(archive.openAll(), after, limit, new RowFilter() {
+            @Override
+            public boolean matches(ArchiveReader reader, int row) {
+                return reader.getPlaceId(row) == placeId;
+            }
+        });
+    }
+
+    /**
+     * Fetches archived movements made at a place found by clustering.
+     * */
+
+    List<Movement> getByCluster(final long clusterId, Movement after, int limit) {
+        return scan(archive.openAll(), after, limit, new RowFilter() {
+            @Override
+            public boolean matches(ArchiveReader reader, int row) {
+                return reader.getClusterId(row) == clusterId;
+            }
+        });
+    }
+
+    /**
+     * Fetches archived movements made inside a bounding box.
+     * */
+
+    List<Movement> getInBox(double minLatitude, double minLongitude,
+                            double maxLatitude, double maxLongitude) {
+        final long minLatitudeE7 = (long)Math.ceil(minLatitude * ArchiveFormat.E7);
+        final long maxLatitudeE7 = (long)Math.floor(maxLatitude * ArchiveFormat.E7);
+        final long minLongitudeE7 = (long)Math.ceil(minLongitude * ArchiveFormat.E7);
+        final long maxLongitudeE7 = (long)Math.floor(maxLongitude * ArchiveFormat.E7);
+        return scan(archive.openAll(), null, -1, new RowFilter() {
+            @Override
+            public boolean matches(ArchiveReader reader, int row) {
+                int latitude = reader.getLatitudeE7(row);
+                int longitude = reader.getLongitudeE7(row);
+                return latitude >= minLatitudeE7 && latitude <= maxLatitudeE7
+                        && longitude >= minLongitudeE7 && longitude <= maxLongitudeE7;
+            }
+        });
+    }
+
+    /**
+     * Merges a page of live movements with a page of archived movements, newest first. Archived
+     * movements that are still in the live table are only returned once. A movement is matched by
+     * its id and timestamp, since ids were reused before they were made monotonic.
+     * @param limit the maximum number of movements to return, or -1 for no limit.
+     * */
+
+    static List<Movement> merge(List<Movement> live, List<Movement> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<Long, Long> liveTimestamps = new HashMap<>();
+        for (Movement movement : live) {
+            liveTimestamps.put(movement.getId(), movement.getTimeStamp());
+        }
+        List<Movement> movements = new ArrayList<>(live);
+        for (Movement movement : archived) {
+            Long liveTimestamp = liveTimestamps.get(movement.getId());
+            if (liveTimestamp == null || liveTimestamp != movement.getTimeStamp()) {
+                movements.add(movement);
+            }
+        }
+        Collections.sort(movements, NEWEST_FIRST);
+        if (limit >= 0 && movements.size() > limit) {
+            return new ArrayList<>(movements.subList(0, limit));
+        }
+        return movements;
+    }
+
+    /**
+     * Streams every archived movement, oldest first. Each month is released before the next one
+     * is read.
+     * @return false if the sink stopped the stream.
+     * */
+
+    boolean stream(MovementSink sink) {
+        List<ArchiveReader> readers = archive.openAll();
+        for (int i = readers.size() - 1; i >= 0; i--) {
+            ArchiveReader reader = readers.remove(i);
+            for (int row = 0; row < reader.getRowCount(); row++) {
+                if (!sink.accept(getMovement(reader, row))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of archived movements.
+     * */
+
+    long count() {
+        long count = 0;
+        for (ArchiveReader reader : archive.openAll()) {
+            count += reader.getRowCount();
+        }
+        return count;
+    }
+
+    private List<Movement> scan(List<ArchiveReader> readers, Movement after, int limit,
+                                RowFilter filter) {
+        List<Movement> movements = new ArrayList<>();
+        for (ArchiveReader reader : readers) {
+            for (int row = reader.getRowCount() - 1; row >= 0; row--) {
+                if (limit >= 0 && movements.size() >= limit) {
+                    return movements;
+                }
+                if (isBefore(reader, row, after) && filter.matches(reader, row)) {
+                    movements.add(getMovement(reader, row));
+                }
+            }
+        }
+        return movements;
+    }
+
+    private boolean isBefore(ArchiveReader reader, int row, Movement after) {
+        if (after == null) {
+            return true;
+        }
+        long timestamp = reader.getTimestamp(row);
+        return timestamp < after.getTimeStamp()
+                || (timestamp == after.getTimeStamp() && reader.getId(row) < after.getId());
+    }
+
+    private Movement getMovement(ArchiveReader reader, int row) {
+        Movement movement = new Movement();
+        long activityId = reader.getActivityId(row);
+        movement.setId(reader.getId(row));
+        movement.setActivityId((int)activityId);
+        movement.setActivityName(activityTypes.getName(activityId));
+        movement.setPlaceName(places.getName(reader.getPlaceId(row)));
+        movement.setTimeStamp(reader.getTimestamp(row));
+        movement.setLatitude(reader.getLatitudeE7(row) / ArchiveFormat.E7);
+        movement.setLongitude(reader.getLongitudeE7(row) / ArchiveFormat.E7);
+        movement.setDuration(reader.getDuration(row));
+        movement.setClusterId(reader.getClusterId(row));
+        return movement;
+    }
+
+    private interface RowFilter {
+        boolean matches(ArchiveReader reader, int row);
+    }
+}
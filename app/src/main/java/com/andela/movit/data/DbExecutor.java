@@ -0,0 +1,125 @@
+/**
+ * This class runs {@code DbOperation}s on a small pool of background threads and delivers their
+ * results to a {@code DbCallback} on the main thread. Waiting operations are run in order of
+ * priority, so reads the user is waiting on are not queued behind background work, and
+ * operations of the same priority run in the order they were submitted. The pool is bounded, as
+ * the database only serves a few reads in parallel and writes are serialized anyway. Every
+ * submitted operation returns a {@code DbTask} that can be cancelled, e.g. when the view that
+ * asked for the result goes away or asks for something else.
+ * */
+
+package com.andela.movit.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DbExecutor {
+
+    /**
+     * The priority of reads whose results are waiting to be displayed.
+     * */
+
+    public static final int PRIORITY_UI = 0;
+
+    /**
+     * The priority of work that nobody is waiting on.
+     * */
+
+    public static final int PRIORITY_BACKGROUND = 1;
+
+    private static final int THREAD_COUNT = 2;
+
+    private static final long KEEP_ALIVE = 30;
+
+    private static DbExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Handler mainHandler;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private DbExecutor() {
+        executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, KEEP_ALIVE, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), getThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Returns the process-wide executor, creating it on first use.
+     * */
+
+    public static synchronized DbExecutor getInstance() {
+        if (instance == null) {
+            instance = new DbExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Submits an operation with the UI priority.
+     * @param operation the operation to run.
+     * @param callback the callback to be invoked on the main thread with the result.
+     * @return the handle for cancelling the operation.
+     * */
+
+    public DbTask submit(DbOperation operation, DbCallback callback) {
+        return submit(operation, callback, PRIORITY_UI);
+    }
+
+    /**
+     * Submits an operation.
+     * @param operation the operation to run.
+     * @param callback the callback to be invoked on the main thread with the result, or null.
+     * @param priority {@code PRIORITY_UI} or {@code PRIORITY_BACKGROUND}.
+     * @return the handle for cancelling the operation.
+     * */
+
+    public DbTask submit(DbOperation operation, DbCallback callback, int priority) {
+        DbTask task = new DbTask(operation, callback, priority, sequence.getAndIncrement(), this);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Drops a task that has not started yet.
+     * */
+
+    void remove(DbTask task) {
+        executor.remove(task);
+    }
+
+    /**
+     * Hands the result of a task to the main thread.
+     * */
+
+    void deliver(final DbTask task, final DbResult dbResult) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                task.deliver(dbResult);
+            }
+        });
+    }
+
+    private ThreadFactory getThreadFactory() {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "DbExecutor-" + count.incrementAndGet());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        };
+    }
+}
@@ -1,20 +1,29 @@
 /**
  * This class provides convenience methods for saving and retrieving {@code Movement} objects
- * from the database.
+ * from the database. A single instance is shared by the whole process, and the database runs in
+ * write-ahead logging mode so that reads can proceed while the tracking service is writing.
+ * The results of the date, place and visit queries are cached in memory until a write touches
+ * them, and callers receive their own copy of the list.
  * */
 
 package com.andela.movit.data;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
+import com.andela.movit.config.ActivityTypes;
+import com.andela.movit.location.GeoMath;
+import com.andela.movit.models.ActivityStat;
 import com.andela.movit.models.Movement;
+import com.andela.movit.models.TrackPoint;
 import com.andela.movit.models.Visit;
 import com.andela.movit.utilities.Utility;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -29,6 +38,10 @@ public class DbRepo extends SQLiteOpenHelper {
 
     public static final String PLC_NAME = "plc_name";
 
+    public static final String ACT_ID = "act_id";
+
+    public static final String PLC_ID = "plc_id";
+
     public static final String TIMESTAMP = "timestamp";
 
     public static final String LATITUDE = "latitude";
@@ -37,9 +50,17 @@ public class DbRepo extends SQLiteOpenHelper {
 
     public static final String DURATION = "duration";
 
+    public static final String GRID_CELL = "grid_cell";
+
+    public static final String CLUSTER_ID = "cluster_id";
+
+    public static final String PLACE_RETRY_AFTER = "place_retry_after";
+
     private static final String DATABASE = "movements.db";
 
-    private static final int VERSION = 1;
+    private static final int VERSION = 12;
+
+    private static final long PLACE_RETRY_DELAY = 24 * 60 * 60 * 1000;
 
     private static final String CREATE = "CREATE TABLE "
             + TABLE + " ("
@@ -51,62 +72,668 @@ public class DbRepo extends SQLiteOpenHelper {
             + LONGITUDE + " FLOAT, "
             + DURATION + " BIGINT);";
 
-    private static final String GET_BY_DATE = "SELECT * FROM "
+    public static final String INDEX_TIMESTAMP = "idx_activities_timestamp";
+
+    public static final String INDEX_PLACE_TIMESTAMP = "idx_activities_place_timestamp";
+
+    public static final String INDEX_ACTIVITY_PLACE_DURATION = "idx_activities_act_place_duration";
+
+    public static final String INDEX_GRID_CELL = "idx_activities_grid_cell";
+
+    public static final String INDEX_CLUSTER_ID = "idx_activities_cluster_id";
+
+    private static final String CREATE_INDEX_TIMESTAMP = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_TIMESTAMP + " ON "
+            + TABLE + " ("
+            + TIMESTAMP + ");";
+
+    private static final String CREATE_INDEX_PLACE_TIMESTAMP = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_PLACE_TIMESTAMP + " ON "
+            + TABLE + " ("
+            + PLC_NAME + ", "
+            + TIMESTAMP + ");";
+
+    private static final String CREATE_INDEX_ACTIVITY_PLACE_DURATION = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_ACTIVITY_PLACE_DURATION + " ON "
+            + TABLE + " ("
+            + ACT_NAME + ", "
+            + PLC_NAME + ", "
+            + DURATION + ");";
+
+    private static final String ADD_GRID_CELL = "ALTER TABLE "
+            + TABLE + " ADD COLUMN "
+            + GRID_CELL + " INTEGER;";
+
+    private static final String BACKFILL_GRID_CELL = "UPDATE "
+            + TABLE + " SET "
+            + GRID_CELL + " = "
+            + SpatialGrid.getCellExpression() + ";";
+
+    private static final String CREATE_INDEX_GRID_CELL = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_GRID_CELL + " ON "
+            + TABLE + " ("
+            + GRID_CELL + ");";
+
+    private static final String ADD_CLUSTER_ID = "ALTER TABLE "
+            + TABLE + " ADD COLUMN "
+            + CLUSTER_ID + " INTEGER;";
+
+    private static final String ADD_PLACE_RETRY_AFTER = "ALTER TABLE "
+            + TABLE + " ADD COLUMN "
+            + PLACE_RETRY_AFTER + " BIGINT;";
+
+    private static final String CREATE_INDEX_CLUSTER_ID = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_CLUSTER_ID + " ON "
+            + TABLE + " ("
+            + CLUSTER_ID + ");";
+
+    private static final String NORMALIZED_TABLE = "activities_normalized";
+
+    private static final String INSERT_ACTIVITY_TYPE = "INSERT OR IGNORE INTO "
+            + Dictionary.ACTIVITY_TYPES + " ("
+            + ID + ", "
+            + Dictionary.NAME + ") VALUES (?, ?);";
+
+    private static final String COPY_ACTIVITY_TYPES = "INSERT OR IGNORE INTO "
+            + Dictionary.ACTIVITY_TYPES + " ("
+            + Dictionary.NAME + ") SELECT DISTINCT "
+            + ACT_NAME + " FROM "
             + TABLE + " WHERE "
-            + TIMESTAMP + " > foo AND "
-            + TIMESTAMP + " < bar "
-            + "ORDER BY " + TIMESTAMP + " DESC;";
+            + ACT_NAME + " IS NOT NULL;";
 
-    private static final String GET_LOCATIONS = "SELECT "
-            + PLC_NAME + ", SUM ("
-            + DURATION + ") FROM "
+    private static final String COPY_PLACES = "INSERT OR IGNORE INTO "
+            + Dictionary.PLACES + " ("
+            + Dictionary.NAME + ") SELECT DISTINCT "
+            + PLC_NAME + " FROM "
             + TABLE + " WHERE "
-            + ACT_NAME + " = 'Standing Still' GROUP BY "
+            + PLC_NAME + " IS NOT NULL;";
+
+    private static final String CREATE_NORMALIZED = "CREATE TABLE "
+            + NORMALIZED_TABLE + " ("
+            + ID + " INTEGER PRIMARY KEY, "
+            + ACT_ID + " INTEGER REFERENCES " + Dictionary.ACTIVITY_TYPES + "(" + ID + "), "
+            + PLC_ID + " INTEGER REFERENCES " + Dictionary.PLACES + "(" + ID + "), "
+            + TIMESTAMP + " BIGINT, "
+            + LATITUDE + " FLOAT, "
+            + LONGITUDE + " FLOAT, "
+            + DURATION + " BIGINT, "
+            + GRID_CELL + " INTEGER, "
+            + CLUSTER_ID + " INTEGER);";
+
+    private static final String COPY_NORMALIZED = "INSERT INTO "
+            + NORMALIZED_TABLE + " SELECT a."
+            + ID + ", t."
+            + ID + ", p."
+            + ID + ", a."
+            + TIMESTAMP + ", a."
+            + LATITUDE + ", a."
+            + LONGITUDE + ", a."
+            + DURATION + ", a."
+            + GRID_CELL + ", a."
+            + CLUSTER_ID + " FROM "
+            + TABLE + " a LEFT JOIN "
+            + Dictionary.ACTIVITY_TYPES + " t ON t."
+            + Dictionary.NAME + " = a."
+            + ACT_NAME + " LEFT JOIN "
+            + Dictionary.PLACES + " p ON p."
+            + Dictionary.NAME + " = a."
             + PLC_NAME + ";";
 
-    private static final String GET_BY_LOCATION = "SELECT * FROM "
+    private static final String CREATE_MONOTONIC = "CREATE TABLE "
+            + NORMALIZED_TABLE + " ("
+            + ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + ACT_ID + " INTEGER REFERENCES " + Dictionary.ACTIVITY_TYPES + "(" + ID + "), "
+            + PLC_ID + " INTEGER REFERENCES " + Dictionary.PLACES + "(" + ID + "), "
+            + TIMESTAMP + " BIGINT, "
+            + LATITUDE + " FLOAT, "
+            + LONGITUDE + " FLOAT, "
+            + DURATION + " BIGINT, "
+            + GRID_CELL + " INTEGER, "
+            + CLUSTER_ID + " INTEGER);";
+
+    private static final String COPY_MONOTONIC = "INSERT INTO "
+            + NORMALIZED_TABLE + " SELECT "
+            + ID + ", "
+            + ACT_ID + ", "
+            + PLC_ID + ", "
+            + TIMESTAMP + ", "
+            + LATITUDE + ", "
+            + LONGITUDE + ", "
+            + DURATION + ", "
+            + GRID_CELL + ", "
+            + CLUSTER_ID + " FROM "
+            + TABLE + ";";
+
+    private static final String SEQUENCE_TABLE = "sqlite_sequence";
+
+    private static final String RAISE_SEQUENCE = "UPDATE "
+            + SEQUENCE_TABLE + " SET seq = MAX(seq, ?) WHERE name = '"
+            + TABLE + "';";
+
+    private static final String INSERT_SEQUENCE = "INSERT INTO "
+            + SEQUENCE_TABLE + " (name, seq) SELECT '"
+            + TABLE + "', ? WHERE NOT EXISTS (SELECT 1 FROM "
+            + SEQUENCE_TABLE + " WHERE name = '"
+            + TABLE + "');";
+
+    private static final String DROP = "DROP TABLE IF EXISTS ";
+
+    private static final String RENAME_NORMALIZED = "ALTER TABLE "
+            + NORMALIZED_TABLE + " RENAME TO "
+            + TABLE + ";";
+
+    private static final String CREATE_INDEX_PLACE_ID_TIMESTAMP = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_PLACE_TIMESTAMP + " ON "
+            + TABLE + " ("
+            + PLC_ID + ", "
+            + TIMESTAMP + ");";
+
+    private static final String CREATE_INDEX_ACTIVITY_PLACE_ID_DURATION =
+            "CREATE INDEX IF NOT EXISTS "
+            + INDEX_ACTIVITY_PLACE_DURATION + " ON "
+            + TABLE + " ("
+            + ACT_ID + ", "
+            + PLC_ID + ", "
+            + DURATION + ");";
+
+    private static final String INSERT = "INSERT INTO "
+            + TABLE + " ("
+            + ACT_ID + ", "
+            + PLC_ID + ", "
+            + TIMESTAMP + ", "
+            + LATITUDE + ", "
+            + LONGITUDE + ", "
+            + DURATION + ", "
+            + GRID_CELL + ", "
+            + CLUSTER_ID + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+
+    private static final String MOVEMENT_COLUMNS = ID + ", "
+            + ACT_ID + ", "
+            + PLC_ID + ", "
+            + TIMESTAMP + ", "
+            + LATITUDE + ", "
+            + LONGITUDE + ", "
+            + DURATION + ", "
+            + CLUSTER_ID;
+
+    private static final String BEFORE_KEY = "("
+            + TIMESTAMP + " < ? OR ("
+            + TIMESTAMP + " = ? AND "
+            + ID + " < ?)) ";
+
+    private static final String NEWEST_FIRST = "ORDER BY "
+            + TIMESTAMP + " DESC, "
+            + ID + " DESC LIMIT ?;";
+
+    private static final String GET_BY_DATE = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + TIMESTAMP + " > ? AND "
+            + TIMESTAMP + " < ? AND "
+            + BEFORE_KEY
+            + NEWEST_FIRST;
+
+    private static final String GET_BY_LOCATION = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + PLC_ID + " = ? AND "
+            + BEFORE_KEY
+            + NEWEST_FIRST;
+
+    private static final String GET_BY_CLUSTER = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + CLUSTER_ID + " = ? AND "
+            + BEFORE_KEY
+            + NEWEST_FIRST;
+
+    private static final String IN_BOX = " AND "
+            + LATITUDE + " BETWEEN ? AND ? AND "
+            + LONGITUDE + " BETWEEN ? AND ? ";
+
+    private static final String GET_OLDEST = "SELECT MIN("
+            + TIMESTAMP + ") FROM "
+            + TABLE + ";";
+
+    private static final String GET_BY_MONTH = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
             + TABLE + " WHERE "
-            + PLC_NAME + " = foo "
-            + "ORDER BY " + TIMESTAMP + " DESC;";
+            + TIMESTAMP + " >= ? AND "
+            + TIMESTAMP + " < ? ORDER BY "
+            + TIMESTAMP + ", "
+            + ID + ";";
+
+    private static final String DELETE_BY_MONTH = "DELETE FROM "
+            + TABLE + " WHERE "
+            + TIMESTAMP + " >= ? AND "
+            + TIMESTAMP + " < ?;";
+
+    private static final String GET_ALL = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
+            + TABLE + " ORDER BY "
+            + TIMESTAMP + ", "
+            + ID + ";";
+
+    private static final String GET_WITHOUT_PLACE = "SELECT "
+            + MOVEMENT_COLUMNS + " FROM "
+            + TABLE + " WHERE "
+            + PLC_ID + " IS NULL AND ("
+            + PLACE_RETRY_AFTER + " IS NULL OR "
+            + PLACE_RETRY_AFTER + " <= ?) ORDER BY "
+            + ID + " DESC LIMIT ?;";
+
+    private static final String SET_PLACE = "UPDATE "
+            + TABLE + " SET "
+            + PLC_ID + " = ? WHERE "
+            + ID + " = ? AND "
+            + PLC_ID + " IS NULL;";
+
+    private static final String SET_PLACE_RETRY_AFTER = "UPDATE "
+            + TABLE + " SET "
+            + PLACE_RETRY_AFTER + " = ? WHERE "
+            + ID + " = ? AND "
+            + PLC_ID + " IS NULL;";
+
+    private static final String COUNT_ALL = "SELECT COUNT(*) FROM " + TABLE + ";";
+
+    private static final String ARCHIVE_DIRECTORY = "archive";
+
+    private static final String NO_LIMIT = "-1";
+
+    private static DbRepo instance;
 
     private SQLiteDatabase db;
 
-    public DbRepo(Context context) {
+    private SQLiteStatement insertStatement;
+
+    private SQLiteStatement setPlaceStatement;
+
+    private SQLiteStatement setPlaceRetryStatement;
+
+    private VisitAggregates visitAggregates;
+
+    private ActivityStats activityStats;
+
+    private PlaceClusters placeClusters;
+
+    private TrackPoints trackPoints;
+
+    private Dictionary places;
+
+    private Dictionary activityTypes;
+
+    private final MovementArchive archive;
+
+    private ArchivedMovements archivedMovements;
+
+    private final QueryCache queryCache = new QueryCache();
+
+    private boolean hasNewPlace;
+
+    private DbRepo(Context context) {
         super(context, DATABASE, null, VERSION);
+        archive = new MovementArchive(new File(context.getFilesDir(), ARCHIVE_DIRECTORY));
+    }
+
+    /**
+     * Returns the process-wide repository, creating it on first use. The underlying database
+     * stays open for the lifetime of the process and must not be closed by callers.
+     * @param context any context; the application context is retained.
+     * */
+
+    public static synchronized DbRepo getInstance(Context context) {
+        if (instance == null) {
+            instance = new DbRepo(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        db.enableWriteAheadLogging();
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(CREATE);
+        onUpgrade(db, 1, VERSION);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            upgradeToVersion2(db);
+        }
+        if (oldVersion < 5) {
+            upgradeToVersion5(db);
+        }
+        if (oldVersion < 6) {
+            upgradeToVersion6(db);
+        }
+        if (oldVersion < 7) {
+            upgradeToVersion7(db);
+        }
+        if (oldVersion < 8) {
+            TrackPoints.createTable(db);
+        }
+        if (oldVersion < 9) {
+            upgradeToVersion9(db);
+        }
+        if (oldVersion < 10) {
+            upgradeToVersion10(db);
+        }
+        if (oldVersion < 11) {
+            db.execSQL(ADD_PLACE_RETRY_AFTER);
+        }
+        if (oldVersion < 12) {
+            upgradeToVersion12(db);
+        }
     }
 
-    private void initializeDatabase() {
-        if (db == null) {
-            db = this.getWritableDatabase();
+    private void upgradeToVersion2(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_PLACE_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_ACTIVITY_PLACE_DURATION);
+    }
+
+    private void upgradeToVersion5(SQLiteDatabase db) {
+        db.execSQL(ADD_GRID_CELL);
+        db.execSQL(BACKFILL_GRID_CELL);
+        db.execSQL(CREATE_INDEX_GRID_CELL);
+    }
+
+    private void upgradeToVersion6(SQLiteDatabase db) {
+        db.execSQL(ADD_CLUSTER_ID);
+        db.execSQL(CREATE_INDEX_CLUSTER_ID);
+        PlaceClusters.createTable(db);
+    }
+
+    private void upgradeToVersion7(SQLiteDatabase db) {
+        Dictionary.createTable(db, Dictionary.ACTIVITY_TYPES);
+        Dictionary.createTable(db, Dictionary.PLACES);
+        for (int id = 1; id <= ActivityTypes.LAST_BUILT_IN; id++) {
+            db.execSQL(INSERT_ACTIVITY_TYPE, new Object[] {id, ActivityTypes.getName(id)});
         }
+        db.execSQL(COPY_ACTIVITY_TYPES);
+        db.execSQL(COPY_PLACES);
+        db.execSQL(CREATE_NORMALIZED);
+        db.execSQL(COPY_NORMALIZED);
+        db.execSQL(DROP + TABLE + ";");
+        db.execSQL(RENAME_NORMALIZED);
+        db.execSQL(CREATE_INDEX_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_PLACE_ID_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_ACTIVITY_PLACE_ID_DURATION);
+        db.execSQL(CREATE_INDEX_GRID_CELL);
+        db.execSQL(CREATE_INDEX_CLUSTER_ID);
+        db.execSQL(DROP + VisitAggregates.TABLE + ";");
+        db.execSQL(DROP + ActivityStats.TABLE + ";");
+        VisitAggregates.createTable(db);
+        ActivityStats.createTable(db);
+        new PlaceClusters(db).rebuild();
     }
 
-    public void closeDatabase() {
-        if (db != null && db.isOpen()) {
-            db.close();
+    private void upgradeToVersion9(SQLiteDatabase db) {
+        db.execSQL(CREATE_MONOTONIC);
+        db.execSQL(COPY_MONOTONIC);
+        db.execSQL(DROP + TABLE + ";");
+        db.execSQL(RENAME_NORMALIZED);
+        db.execSQL(CREATE_INDEX_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_PLACE_ID_TIMESTAMP);
+        db.execSQL(CREATE_INDEX_ACTIVITY_PLACE_ID_DURATION);
+        db.execSQL(CREATE_INDEX_GRID_CELL);
+        db.execSQL(CREATE_INDEX_CLUSTER_ID);
+        Object[] maxArchivedId = {archive.getMaxId()};
+        db.execSQL(RAISE_SEQUENCE, maxArchivedId);
+        db.execSQL(INSERT_SEQUENCE, maxArchivedId);
+    }
+
+    private void upgradeToVersion10(SQLiteDatabase db) {
+        db.execSQL(DROP + VisitAggregates.TABLE + ";");
+        VisitAggregates.createTable(db);
+    }
+
+    private void upgradeToVersion12(SQLiteDatabase db) {
+        VisitAggregates.createTable(db);
+        db.execSQL("DELETE FROM " + VisitAggregates.ARCHIVED_TABLE + ";");
+        VisitAggregates visits = new VisitAggregates(db);
+        for (ArchiveReader reader : archive.openAll()) {
+            for (int row = 0; row < reader.getRowCount(); row++) {
+                visits.recordArchived(reader.getActivityId(row), reader.getClusterId(row),
+                        reader.getPlaceId(row), reader.getDuration(row),
+                        reader.getTimestamp(row));
+            }
+        }
+        visits.rebuild();
+    }
+
+    private synchronized void initializeDatabase() {
+        if (db == null) {
+            db = this.getWritableDatabase();
+            places = new Dictionary(db, Dictionary.PLACES);
+            activityTypes = new Dictionary(db, Dictionary.ACTIVITY_TYPES);
+            visitAggregates = new VisitAggregates(db);
+            activityStats = new ActivityStats(db, activityTypes);
+            placeClusters = new PlaceClusters(db);
+            trackPoints = new TrackPoints(db);
+            archivedMovements = new ArchivedMovements(archive, activityTypes, places);
         }
     }
 
     /**
-     * Saves a {@code Movement} object in the database.
+     * Saves a {@code Movement} object in the database, updating the visit aggregates and the
+     * activity statistics in the same transaction.
      * @param movement the Movement object to write to the database
      * @return the id of the row created.
      * */
 
-    public long addMovement(Movement movement) {
+    public synchronized long addMovement(Movement movement) {
         initializeDatabase();
-        ContentValues values = getWriteContents(movement);
-        long newRowId = db.insert(TABLE, null, values);
-        return newRowId;
+        boolean isSuccessful = false;
+        db.beginTransaction();
+        long rowId;
+        hasNewPlace = false;
+        try {
+            rowId = insertMovement(movement);
+            db.setTransactionSuccessful();
+            isSuccessful = true;
+        } finally {
+            endTransaction(isSuccessful);
+        }
+        if (hasNewPlace) {
+            queryCache.clear();
+        } else {
+            queryCache.invalidate(movement);
+        }
+        return rowId;
+    }
+
+    /**
+     * Saves a batch of {@code Movement} objects in the database in a single transaction, reusing
+     * one compiled insert statement for every row.
+     * @param movements the Movement objects to write to the database.
+     * @return the number of rows created.
+     * */
+
+    public synchronized int addMovements(List<Movement> movements) {
+        initializeDatabase();
+        int rowCount = 0;
+        boolean isSuccessful = false;
+        db.beginTransaction();
+        hasNewPlace = false;
+        try {
+            for (Movement movement : movements) {
+                if (insertMovement(movement) != -1) {
+                    rowCount++;
+                }
+            }
+            db.setTransactionSuccessful();
+            isSuccessful = true;
+        } finally {
+            endTransaction(isSuccessful);
+        }
+        if (hasNewPlace) {
+            queryCache.clear();
+            return rowCount;
+        }
+        for (Movement movement : movements) {
+            queryCache.invalidate(movement);
+        }
+        return rowCount;
+    }
+
+    /**
+     * Saves a batch of route points in a single transaction.
+     * @param points the points to write to the database, already simplified.
+     * @return the number of rows created.
+     * */
+
+    public synchronized int addTrackPoints(List<TrackPoint> points) {
+        initializeDatabase();
+        int rowCount = 0;
+        db.beginTransaction();
+        try {
+            for (TrackPoint point : points) {
+                if (trackPoints.insert(point) != -1) {
+                    rowCount++;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return rowCount;
+    }
+
+    /**
+     * Fetches the simplified route recorded during a tracking session.
+     * @param sessionId the id of the session, the time (in milliseconds) when it started.
+     * @return the points of the route, in the order they were travelled.
+     * */
+
+    public List<TrackPoint> getTrack(long sessionId) {
+        initializeDatabase();
+        return trackPoints.getTrack(sessionId);
+    }
+
+    /**
+     * Fetches the most recent saved movements whose place name is not known yet. Archived
+     * movements are not included, and neither are movements whose place name could not be found
+     * recently.
+     * @param limit the maximum number of movements to fetch.
+     * @return a list of Movement objects, newest first.
+     * */
+
+    public List<Movement> getMovementsWithoutPlace(int limit) {
+        initializeDatabase();
+        String[] args = {Long.toString(System.currentTimeMillis()), Integer.toString(limit)};
+        return extractMovementsFromCursor(runQuery(GET_WITHOUT_PLACE, args));
+    }
+
+    /**
+     * Saves the place names resolved for movements that were saved without one, in a single
+     * transaction, names their places in the visit aggregates and moves them into the activity
+     * statistics of their place. Movements whose place name is still null are left out of
+     * {@code getMovementsWithoutPlace} for a day, so that they do not hold up the others.
+     * @param movements saved movements, as fetched by {@code getMovementsWithoutPlace}, with
+     * their place names set.
+     * @return the number of rows updated.
+     * */
+
+    public synchronized int setPlaceNames(List<Movement> movements) {
+        initializeDatabase();
+        int rowCount = 0;
+        boolean isSuccessful = false;
+        db.beginTransaction();
+        try {
+            long retryAfter = System.currentTimeMillis() + PLACE_RETRY_DELAY;
+            for (Movement movement : movements) {
+                if (movement.getPlaceName() == null) {
+                    deferPlace(movement, retryAfter);
+                } else if (updatePlace(movement)) {
+                    rowCount++;
+                }
+            }
+            db.setTransactionSuccessful();
+            isSuccessful = true;
+        } finally {
+            endTransaction(isSuccessful);
+        }
+        for (Movement movement : movements) {
+            if (movement.getPlaceName() != null) {
+                queryCache.invalidate(movement);
+            }
+        }
+        return rowCount;
+    }
+
+    private boolean updatePlace(Movement movement) {
+        long placeId = places.intern(movement.getPlaceName());
+        if (setPlaceStatement == null) {
+            setPlaceStatement = db.compileStatement(SET_PLACE);
+        }
+        setPlaceStatement.bindLong(1, placeId);
+        setPlaceStatement.bindLong(2, movement.getId());
+        if (setPlaceStatement.executeUpdateDelete() == 0) {
+            return false;
+        }
+        visitAggregates.name(movement, placeId);
+        activityStats.movePlace(movement, movement.getActivityId(), placeId);
+        return true;
+    }
+
+    private void deferPlace(Movement movement, long retryAfter) {
+        if (setPlaceRetryStatement == null) {
+            setPlaceRetryStatement = db.compileStatement(SET_PLACE_RETRY_AFTER);
+        }
+        setPlaceRetryStatement.bindLong(1, retryAfter);
+        setPlaceRetryStatement.bindLong(2, movement.getId());
+        setPlaceRetryStatement.executeUpdateDelete();
+    }
+
+    private void endTransaction(boolean isSuccessful) {
+        db.endTransaction();
+        if (!isSuccessful) {
+            places.clear();
+            activityTypes.clear();
+        }
+    }
+
+    private long insertMovement(Movement movement) {
+        long activityId = activityTypes.intern(movement.getActivityName());
+        long placeId = places.intern(movement.getPlaceName());
+        movement.setActivityId((int)activityId);
+        movement.setClusterId(placeClusters.assign(movement, activityId));
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement(INSERT);
+        }
+        bindId(insertStatement, 1, activityId);
+        bindId(insertStatement, 2, placeId);
+        insertStatement.bindLong(3, movement.getTimeStamp());
+        insertStatement.bindDouble(4, movement.getLatitude());
+        insertStatement.bindDouble(5, movement.getLongitude());
+        insertStatement.bindLong(6, movement.getDuration());
+        insertStatement.bindLong(7,
+                SpatialGrid.getCell(movement.getLatitude(), movement.getLongitude()));
+        bindId(insertStatement, 8, movement.getClusterId());
+        long rowId = insertStatement.executeInsert();
+        if (rowId != -1) {
+            if (placeClusters.getNewClusterId() != 0) {
+                visitAggregates.refresh(placeClusters.getNewClusterId());
+                hasNewPlace = true;
+            } else {
+                visitAggregates.record(movement, activityId, movement.getClusterId(), placeId);
+            }
+            activityStats.record(movement, activityId, placeId);
+        }
+        return rowId;
+    }
+
+    private void bindId(SQLiteStatement statement, int index, long id) {
+        if (id == 0) {
+            statement.bindNull(index);
+        } else {
+            statement.bindLong(index, id);
+        }
     }
 
     /**
@@ -116,33 +743,180 @@ public class DbRepo extends SQLiteOpenHelper {
      **/
 
     public List<Movement> getMovementsByDate(Date date) {
+        return getMovementsByDate(date, null, -1);
+    }
+
+    /**
+     * Fetches one page of the {@code Movement} objects made on the given date, newest first.
+     * Pages are keyed on the timestamp (and row id) of the last movement already loaded, so
+     * fetching a page costs the same however deep into the day it is.
+     * @param date the date when the movement(s) were made.
+     * @param after the last movement of the previous page, or null to fetch the first page.
+     * @param limit the maximum number of movements to fetch, or -1 for no limit.
+     * @return a list of Movement objects.
+     * */
+
+    public List<Movement> getMovementsByDate(Date date, Movement after, int limit) {
         initializeDatabase();
         String[] ranges = getDateRanges(date);
-        String query = GET_BY_DATE.replace("foo", ranges[0]).replace("bar", ranges[1]);
-        return extractMovementsFromCursor(runQuery(query));
+        long from = Long.parseLong(ranges[0]);
+        long to = Long.parseLong(ranges[1]);
+        String key = QueryCache.getDateKey(from, to, after, limit);
+        List<Movement> cached = queryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = queryCache.getGeneration();
+        String[] args = getPageArgs(after, limit, ranges[0], ranges[1]);
+        List<Movement> movements = extractMovementsFromCursor(runQuery(GET_BY_DATE, args));
+        List<Movement> archived = archivedMovements.getByTime(from, to, after, limit);
+        List<Movement> merged = ArchivedMovements.merge(movements, archived, limit);
+        queryCache.putByDate(key, generation, from, to, merged);
+        return merged;
     }
 
     /**
      * Fetches a list of all the places logged in the database and the total duration spent there,
-     * wrapped in {@code Visit} objects.
+     * wrapped in {@code Visit} objects. Places are found by clustering the stay points, and are
+     * listed once one of their stays has a place name. The list is read from the visit
+     * aggregates, so it costs one row per place.
      * @return a list of {@code Visit} objects.
      * */
 
     public List<Visit> getVisits() {
         initializeDatabase();
-        Cursor cursor = runQuery(GET_LOCATIONS);
-        List<Visit> visits = new ArrayList<>();
-        while (cursor.moveToNext()) {
-            visits.add(getVisitFromCursor(cursor));
+        List<Visit> cached = queryCache.get(QueryCache.VISITS_KEY);
+        if (cached != null) {
+            return cached;
         }
+        long generation = queryCache.getGeneration();
+        List<Visit> visits = visitAggregates.getVisits();
+        queryCache.putVisits(generation, visits);
         return visits;
     }
 
-    private Visit getVisitFromCursor(Cursor cursor) {
-        Visit visit = new Visit();
-        visit.setPlaceName(cursor.getString(0));
-        visit.setDuration(cursor.getLong(1));
-        return visit;
+    /**
+     * Moves the movements of every closed month older than the given number of months out of
+     * the database and into the compact monthly archive files. Archived movements are still
+     * returned by the query methods, and the visit aggregates and statistics still include them.
+     * @param monthsToKeep the number of months before the current one to keep in the database.
+     * @return the number of months archived.
+     * */
+
+    public synchronized int archiveClosedMonths(int monthsToKeep) {
+        initializeDatabase();
+        long cutoff = MovementArchive.getMonthStart(System.currentTimeMillis(), -monthsToKeep);
+        Cursor cursor = runQuery(GET_OLDEST, null);
+        boolean hasMovements = cursor.moveToNext() && !cursor.isNull(0);
+        long oldest = hasMovements ? cursor.getLong(0) : cutoff;
+        cursor.close();
+        int monthCount = 0;
+        for (long month = MovementArchive.getMonthStart(oldest, 0); month < cutoff;
+             month = MovementArchive.getMonthStart(month, 1)) {
+            if (archiveMonth(month, MovementArchive.getMonthStart(month, 1))) {
+                monthCount++;
+            }
+        }
+        if (monthCount > 0) {
+            queryCache.clear();
+        }
+        return monthCount;
+    }
+
+    private boolean archiveMonth(long monthStart, long monthEnd) {
+        String[] args = {Long.toString(monthStart), Long.toString(monthEnd)};
+        ArchiveColumns rows = getArchiveColumns(runQuery(GET_BY_MONTH, args));
+        if (rows.size == 0) {
+            return false;
+        }
+        try {
+            archive.write(monthStart, rows);
+        } catch (IOException e) {
+            return false;
+        }
+        db.beginTransaction();
+        try {
+            for (int row = 0; row < rows.size; row++) {
+                visitAggregates.recordArchived(rows.activityIds[row], rows.clusterIds[row],
+                        rows.placeIds[row], rows.durations[row], rows.timestamps[row]);
+            }
+            db.execSQL(DELETE_BY_MONTH, args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return true;
+    }
+
+    private ArchiveColumns getArchiveColumns(Cursor cursor) {
+        ArchiveColumns rows = new ArchiveColumns(cursor.getCount());
+        for (int row = 0; cursor.moveToNext(); row++) {
+            rows.ids[row] = cursor.getLong(0);
+            rows.activityIds[row] = cursor.getLong(1);
+            rows.placeIds[row] = cursor.getLong(2);
+            rows.timestamps[row] = cursor.getLong(3);
+            rows.latitudes[row] = (int)Math.round(cursor.getDouble(4) * ArchiveFormat.E7);
+            rows.longitudes[row] = (int)Math.round(cursor.getDouble(5) * ArchiveFormat.E7);
+            rows.durations[row] = cursor.getLong(6);
+            rows.clusterIds[row] = cursor.getLong(7);
+        }
+        cursor.close();
+        return rows;
+    }
+
+    /**
+     * Re-clusters every movement in the database into places, in one transaction, and refills
+     * the visit aggregates to match. Places that keep most of their movements keep their ids.
+     * New movements are assigned to places as they are saved, so this only corrects the drift of
+     * the incremental clustering, and is run by {@code MovementWriter} after months have been
+     * archived.
+     * */
+
+    public synchronized void reclusterMovements() {
+        initializeDatabase();
+        db.beginTransaction();
+        try {
+            placeClusters.rebuild();
+            visitAggregates.rebuild();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        queryCache.clear();
+    }
+
+    /**
+     * Fetches the time spent on each activity in every bucket of the given range, across all
+     * places. The statistics are read from rollups, so the cost depends on the number of buckets
+     * rather than the number of movements.
+     * @param granularity the size of the buckets.
+     * @param from the start of the range; the bucket containing it is included.
+     * @param to the end of the range (exclusive).
+     * @return a list of {@code ActivityStat} objects, ordered by bucket and activity.
+     * */
+
+    public List<ActivityStat> getActivityStats(StatGranularity granularity, long from, long to) {
+        initializeDatabase();
+        return activityStats.getStats(granularity, from, to);
+    }
+
+    /**
+     * Fetches the time spent on each activity in every bucket of the given range, at one place.
+     * @param granularity the size of the buckets.
+     * @param from the start of the range; the bucket containing it is included.
+     * @param to the end of the range (exclusive).
+     * @param placeName the place where the activities were performed.
+     * @return a list of {@code ActivityStat} objects, ordered by bucket and activity.
+     * */
+
+    public List<ActivityStat> getActivityStats(StatGranularity granularity, long from, long to,
+                                               String placeName) {
+        initializeDatabase();
+        long placeId = places.getId(placeName);
+        if (placeId == 0) {
+            return new ArrayList<>();
+        }
+        return activityStats.getStatsAtPlace(granularity, from, to, placeId, placeName);
     }
 
     /**
@@ -152,13 +926,179 @@ public class DbRepo extends SQLiteOpenHelper {
      * */
 
     public List<Movement> getMovementsByLocation(String placeName) {
+        return getMovementsByLocation(placeName, null, -1);
+    }
+
+    /**
+     * Fetches one page of the {@code Movement} objects made at a particular location, newest
+     * first.
+     * @param placeName the place where the movements were made.
+     * @param after the last movement of the previous page, or null to fetch the first page.
+     * @param limit the maximum number of movements to fetch, or -1 for no limit.
+     * @return a list of Movement objects.
+     * */
+
+    public List<Movement> getMovementsByLocation(String placeName, Movement after, int limit) {
         initializeDatabase();
-        String query = GET_BY_LOCATION.replace("foo", "'" + placeName + "'");
-        return extractMovementsFromCursor(runQuery(query));
+        String key = QueryCache.getPlaceKey(placeName, after, limit);
+        List<Movement> cached = queryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = queryCache.getGeneration();
+        long placeId = places.getId(placeName);
+        if (placeId == 0) {
+            return new ArrayList<>();
+        }
+        String[] args = getPageArgs(after, limit, Long.toString(placeId));
+        List<Movement> movements = extractMovementsFromCursor(runQuery(GET_BY_LOCATION, args));
+        List<Movement> archived = archivedMovements.getByPlace(placeId, after, limit);
+        List<Movement> merged = ArchivedMovements.merge(movements, archived, limit);
+        queryCache.putByPlace(key, generation, placeName, merged);
+        return merged;
     }
 
-    private Cursor runQuery(String query) {
-        return db.rawQuery(query, null);
+    /**
+     * Fetches one page of the {@code Movement} objects made at a place found by clustering, such
+     * as the place of a {@code Visit}, newest first.
+     * @param clusterId the id of the place.
+     * @param after the last movement of the previous page, or null to fetch the first page.
+     * @param limit the maximum number of movements to fetch, or -1 for no limit.
+     * @return a list of Movement objects.
+     * */
+
+    public List<Movement> getMovementsByCluster(long clusterId, Movement after, int limit) {
+        initializeDatabase();
+        String key = QueryCache.getClusterKey(clusterId, after, limit);
+        List<Movement> cached = queryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = queryCache.getGeneration();
+        String[] args = getPageArgs(after, limit, Long.toString(clusterId));
+        List<Movement> movements = extractMovementsFromCursor(runQuery(GET_BY_CLUSTER, args));
+        List<Movement> archived = archivedMovements.getByCluster(clusterId, after, limit);
+        List<Movement> merged = ArchivedMovements.merge(movements, archived, limit);
+        queryCache.putByCluster(key, generation, clusterId, merged);
+        return merged;
+    }
+
+    /**
+     * Fetches the {@code Movement} objects recorded inside a bounding box, newest first. The
+     * query runs on the spatial grid index, so it only reads movements in the cells the box
+     * covers.
+     * @param minLatitude the southern edge of the box.
+     * @param minLongitude the western edge of the box.
+     * @param maxLatitude the northern edge of the box.
+     * @param maxLongitude the eastern edge of the box.
+     * @return a list of Movement objects.
+     * */
+
+    public List<Movement> getMovementsInBox(double minLatitude, double minLongitude,
+                                            double maxLatitude, double maxLongitude) {
+        initializeDatabase();
+        List<long[]> ranges = SpatialGrid.getCellRanges(
+                minLatitude, minLongitude, maxLatitude, maxLongitude);
+        String[] args = new String[ranges.size() * 2 + 5];
+        String query = "SELECT "
+                + MOVEMENT_COLUMNS + " FROM "
+                + TABLE + " WHERE "
+                + SpatialGrid.getRangeCondition(ranges.size())
+                + IN_BOX
+                + NEWEST_FIRST;
+        SpatialGrid.putRangeArgs(ranges, args, 0);
+        int index = ranges.size() * 2;
+        args[index] = Double.toString(minLatitude);
+        args[index + 1] = Double.toString(maxLatitude);
+        args[index + 2] = Double.toString(minLongitude);
+        args[index + 3] = Double.toString(maxLongitude);
+        args[index + 4] = NO_LIMIT;
+        List<Movement> movements = extractMovementsFromCursor(runQuery(query, args));
+        List<Movement> archived = archivedMovements.getInBox(
+                minLatitude, minLongitude, maxLatitude, maxLongitude);
+        return ArchivedMovements.merge(movements, archived, -1);
+    }
+
+    /**
+     * Fetches the {@code Movement} objects recorded within a given distance of a point, newest
+     * first.
+     * @param latitude the latitude of the point.
+     * @param longitude the longitude of the point.
+     * @param radius the distance from the point, in metres.
+     * @return a list of Movement objects.
+     * */
+
+    public List<Movement> getMovementsNear(double latitude, double longitude, double radius) {
+        double latitudeSpan = GeoMath.metresToLatitude(radius);
+        double longitudeSpan = GeoMath.metresToLongitude(
+                radius, Math.abs(latitude) + latitudeSpan);
+        List<Movement> candidates = getMovementsInBox(
+                latitude - latitudeSpan, longitude - longitudeSpan,
+                latitude + latitudeSpan, longitude + longitudeSpan);
+        List<Movement> movements = new ArrayList<>();
+        for (Movement movement : candidates) {
+            double distance = GeoMath.distance(latitude, longitude,
+                    movement.getLatitude(), movement.getLongitude());
+            if (distance <= radius) {
+                movements.add(movement);
+            }
+        }
+        return movements;
+    }
+
+    /**
+     * Streams every movement, archived ones first, oldest first, without loading them all into
+     * memory.
+     * @return false if the sink stopped the stream.
+     * */
+
+    boolean streamMovements(MovementSink sink) {
+        initializeDatabase();
+        if (!archivedMovements.stream(sink)) {
+            return false;
+        }
+        Cursor cursor = runQuery(GET_ALL, null);
+        try {
+            while (cursor.moveToNext()) {
+                if (!sink.accept(getMovementFromCursor(cursor))) {
+                    return false;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of movements, archived ones included.
+     * */
+
+    long countMovements() {
+        initializeDatabase();
+        Cursor cursor = runQuery(COUNT_ALL, null);
+        long count = cursor.moveToNext() ? cursor.getLong(0) : 0;
+        cursor.close();
+        return count + archivedMovements.count();
+    }
+
+    private String[] getPageArgs(Movement after, int limit, String... filterArgs) {
+        String[] args = new String[filterArgs.length + 4];
+        System.arraycopy(filterArgs, 0, args, 0, filterArgs.length);
+        int index = filterArgs.length;
+        String timestamp = after == null
+                ? Long.toString(Long.MAX_VALUE)
+                : Long.toString(after.getTimeStamp());
+        String id = after == null ? Long.toString(Long.MAX_VALUE) : Long.toString(after.getId());
+        args[index] = timestamp;
+        args[index + 1] = timestamp;
+        args[index + 2] = id;
+        args[index + 3] = limit < 0 ? NO_LIMIT : Integer.toString(limit);
+        return args;
+    }
+
+    private Cursor runQuery(String query, String[] args) {
+        return db.rawQuery(query, args);
     }
 
     private List<Movement> extractMovementsFromCursor(Cursor cursor) {
@@ -172,12 +1112,16 @@ public class DbRepo extends SQLiteOpenHelper {
 
     private Movement getMovementFromCursor(Cursor cursor) {
         Movement movement = new Movement();
-        movement.setActivityName(cursor.getString(1));
-        movement.setPlaceName(cursor.getString(2));
+        movement.setId(cursor.getLong(0));
+        long activityId = cursor.getLong(1);
+        movement.setActivityId((int)activityId);
+        movement.setActivityName(activityTypes.getName(activityId));
+        movement.setPlaceName(places.getName(cursor.getLong(2)));
         movement.setTimeStamp(cursor.getLong(3));
         movement.setLatitude(cursor.getDouble(4));
         movement.setLongitude(cursor.getDouble(5));
         movement.setDuration(cursor.getLong(6));
+        movement.setClusterId(cursor.getLong(7));
         return movement;
     }
 
@@ -194,15 +1138,4 @@ public class DbRepo extends SQLiteOpenHelper {
     private String getDateAsLongString(Date date) {
         return Long.toString(date.getTime());
     }
-
-    private ContentValues getWriteContents(Movement movement) {
-        ContentValues values = new ContentValues();
-        values.put(PLC_NAME, movement.getPlaceName());
-        values.put(ACT_NAME, movement.getActivityName());
-        values.put(TIMESTAMP, movement.getTimeStamp());
-        values.put(LATITUDE, movement.getLatitude());
-        values.put(LONGITUDE, movement.getLongitude());
-        values.put(DURATION, movement.getDuration());
-        return values;
-    }
 }
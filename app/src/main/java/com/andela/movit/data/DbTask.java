@@ -0,0 +1,85 @@
+/**
+ * This class represents a {@code DbOperation} submitted to the {@code DbExecutor}, and serves as
+ * the handle for cancelling it. A cancelled task that has not started yet is never run, and the
+ * callback of a cancelled task is never invoked, even if the operation was already running.
+ * */
+
+package com.andela.movit.data;
+
+public class DbTask implements Runnable, Comparable<DbTask> {
+
+    private final DbOperation operation;
+
+    private final DbCallback callback;
+
+    private final int priority;
+
+    private final long sequence;
+
+    private final DbExecutor executor;
+
+    private volatile boolean isCancelled;
+
+    DbTask(DbOperation operation, DbCallback callback, int priority, long sequence,
+           DbExecutor executor) {
+        this.operation = operation;
+        this.callback = callback;
+        this.priority = priority;
+        this.sequence = sequence;
+        this.executor = executor;
+    }
+
+    /**
+     * Cancels the task. Must be called on the main thread, so that a result that is already on
+     * its way is not delivered either.
+     * */
+
+    public void cancel() {
+        isCancelled = true;
+        executor.remove(this);
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    @Override
+    public void run() {
+        if (isCancelled) {
+            return;
+        }
+        DbResult dbResult;
+        try {
+            dbResult = operation.execute();
+        } catch (Exception e) {
+            dbResult = new DbResult(null, e);
+        }
+        if (!isCancelled) {
+            executor.deliver(this, dbResult);
+        }
+    }
+
+    /**
+     * Invokes the callback with the result of the operation, unless the task has been
+     * cancelled. Must be called on the main thread.
+     * */
+
+    void deliver(DbResult dbResult) {
+        if (isCancelled || callback == null) {
+            return;
+        }
+        if (dbResult.getError() == null) {
+            callback.onOperationSuccess(dbResult.getResult());
+        } else {
+            callback.onOperationFail(dbResult.getError().getMessage());
+        }
+    }
+
+    @Override
+    public int compareTo(DbTask other) {
+        if (priority != other.priority) {
+            return priority < other.priority ? -1 : 1;
+        }
+        return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * This class maintains a dictionary table that maps names to integer ids, so that rows can refer
+ * to a name by id instead of repeating it. Every name and id looked up is interned in memory, so
+ * the same name is only ever read from or written to the table once per process.
+ * */
+
+package com.andela.movit.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class Dictionary {
+
+    static final String PLACES = "places";
+
+    static final String ACTIVITY_TYPES = "activity_types";
+
+    static final String NAME = "name";
+
+    private final SQLiteDatabase db;
+
+    private final String table;
+
+    private final Map<String, Long> ids = new HashMap<>();
+
+    private final Map<Long, String> names = new HashMap<>();
+
+    private SQLiteStatement insertStatement;
+
+    Dictionary(SQLiteDatabase db, String table) {
+        this.db = db;
+        this.table = table;
+    }
+
+    /**
+     * Creates a dictionary table.
+     * */
+
+    static void createTable(SQLiteDatabase db, String table) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS "
+                + table + " ("
+                + DbRepo.ID + " INTEGER PRIMARY KEY, "
+                + NAME + " TEXT NOT NULL UNIQUE);");
+    }
+
+    /**
+     * Returns the id of a name, adding the name to the dictionary if it is new. Must be called
+     * inside a transaction; if the transaction is rolled back, {@code clear} must be called.
+     * @return the id of the name, or 0 if the name is null.
+     * */
+
+    synchronized long intern(String name) {
+        long id = getId(name);
+        if (id != 0 || name == null) {
+            return id;
+        }
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement("INSERT INTO "
+                    + table + " ("
+                    + NAME + ") VALUES (?);");
+        }
+        insertStatement.bindString(1, name);
+        id = insertStatement.executeInsert();
+        put(id, name);
+        return id;
+    }
+
+    /**
+     * Returns the id of a name without adding it to the dictionary.
+     * @return the id of the name, or 0 if the name is null or not in the dictionary.
+     * */
+
+    synchronized long getId(String name) {
+        if (name == null) {
+            return 0;
+        }
+        Long id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        Cursor cursor = db.rawQuery("SELECT "
+                + DbRepo.ID + " FROM "
+                + table + " WHERE "
+                + NAME + " = ?;", new String[] {name});
+        long foundId = cursor.moveToNext() ? cursor.getLong(0) : 0;
+        cursor.close();
+        if (foundId != 0) {
+            put(foundId, name);
+        }
+        return foundId;
+    }
+
+    /**
+     * Returns the name with the given id.
+     * @return the name, or null if the id is 0 or not in the dictionary.
+     * */
+
+    synchronized String getName(long id) {
+        if (id == 0) {
+            return null;
+        }
+        String name = names.get(id);
+        if (name != null) {
+            return name;
+        }
+        Cursor cursor = db.rawQuery("SELECT "
+                + NAME + " FROM "
+                + table + " WHERE "
+                + DbRepo.ID + " = ?;", new String[] {Long.toString(id)});
+        String foundName = cursor.moveToNext() ? cursor.getString(0) : null;
+        cursor.close();
+        if (foundName != null) {
+            put(id, foundName);
+        }
+        return foundName;
+    }
+
+    /**
+     * Forgets every interned name, e.g. after a transaction that added names was rolled back.
+     * */
+
+    synchronized void clear() {
+        ids.clear();
+        names.clear();
+    }
+
+    private void put(long id, String name) {
+        ids.put(name, id);
+        names.put(id, name);
+    }
+}
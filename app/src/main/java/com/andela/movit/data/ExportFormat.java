@@ -0,0 +1,177 @@
+/**
+ * This enum defines the file formats that movement history can be exported to. Each format
+ * writes one movement at a time, so a whole history can be written without holding it in memory.
+ * Times are written in UTC, in ISO 8601 form.
+ * */
+
+package com.andela.movit.data;
+
+import com.andela.movit.models.Movement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public enum ExportFormat {
+    CSV("csv") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("id,time,activity,place,latitude,longitude,duration\n");
+        }
+
+        @Override
+        void writeMovement(Writer writer, Movement movement, String time) throws IOException {
+            writer.write(Long.toString(movement.getId()));
+            writer.write(',');
+            writer.write(time);
+            writer.write(',');
+            writer.write(escapeCsv(movement.getActivityName()));
+            writer.write(',');
+            writer.write(escapeCsv(movement.getPlaceName()));
+            writer.write(',');
+            writer.write(Double.toString(movement.getLatitude()));
+            writer.write(',');
+            writer.write(Double.toString(movement.getLongitude()));
+            writer.write(',');
+            writer.write(Long.toString(movement.getDuration()));
+            writer.write('\n');
+        }
+    },
+    GPX("gpx") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<gpx version=\"1.1\" creator=\"Movit\" "
+                    + "xmlns=\"http://www.topografix.com/GPX/1/1\">\n"
+                    + "<trk><name>Movit history</name><trkseg>\n");
+        }
+
+        @Override
+        void writeMovement(Writer writer, Movement movement, String time) throws IOException {
+            writer.write("<trkpt lat=\"");
+            writer.write(Double.toString(movement.getLatitude()));
+            writer.write("\" lon=\"");
+            writer.write(Double.toString(movement.getLongitude()));
+            writer.write("\"><time>");
+            writer.write(time);
+            writer.write("</time><name>");
+            writer.write(escapeXml(movement.getActivityName()));
+            writer.write("</name><desc>");
+            writer.write(escapeXml(movement.getPlaceName()));
+            writer.write("</desc></trkpt>\n");
+        }
+
+        @Override
+        void writeFooter(Writer writer) throws IOException {
+            writer.write("</trkseg></trk>\n</gpx>\n");
+        }
+    },
+    JSON_LINES("jsonl") {
+        @Override
+        void writeMovement(Writer writer, Movement movement, String time) throws IOException {
+            writer.write("{\"id\":");
+            writer.write(Long.toString(movement.getId()));
+            writer.write(",\"time\":\"");
+            writer.write(time);
+            writer.write("\",\"activity\":");
+            writer.write(escapeJson(movement.getActivityName()));
+            writer.write(",\"place\":");
+            writer.write(escapeJson(movement.getPlaceName()));
+            writer.write(",\"latitude\":");
+            writer.write(Double.toString(movement.getLatitude()));
+            writer.write(",\"longitude\":");
+            writer.write(Double.toString(movement.getLongitude()));
+            writer.write(",\"duration\":");
+            writer.write(Long.toString(movement.getDuration()));
+            writer.write("}\n");
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the usual file name extension of the format, without the dot.
+     * */
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns a date format that produces the times written by every export format.
+     * */
+
+    static SimpleDateFormat getTimeFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    /**
+     * Writes a movement, formatting its time with the given date format.
+     * */
+
+    void write(Writer writer, Movement movement, SimpleDateFormat timeFormat) throws IOException {
+        writeMovement(writer, movement, timeFormat.format(new Date(movement.getTimeStamp())));
+    }
+
+    void writeHeader(Writer writer) throws IOException {
+    }
+
+    abstract void writeMovement(Writer writer, Movement movement, String time) throws IOException;
+
+    void writeFooter(Writer writer) throws IOException {
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String escapeXml(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+
+    private static String escapeJson(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c == '\n') {
+                builder.append("\\n");
+            } else if (c == '\r') {
+                builder.append("\\r");
+            } else if (c == '\t') {
+                builder.append("\\t");
+            } else if (c < 0x20) {
+                builder.append(String.format(Locale.US, "\\u%04x", (int)c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
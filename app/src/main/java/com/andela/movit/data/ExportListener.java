@@ -0,0 +1,9 @@
+/**
+ * This interface defines a callback to be invoked as an export makes progress.
+ * */
+
+package com.andela.movit.data;
+
+public interface ExportListener {
+    void onProgress(long exportedCount, long totalCount);
+}
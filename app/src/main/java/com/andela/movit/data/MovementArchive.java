@@ -0,0 +1,230 @@
+/**
+ * This class manages the directory of movement archive files, one file per calendar month. It
+ * provides operations for writing a month of movements and for opening the months that overlap
+ * a range of time. Files are written to a temporary file and renamed into place, so a month is
+ * either fully archived or not at all. The reader of each month is kept open between queries, so
+ * a month is only mapped and decoded again after it has been rewritten.
+ * */
+
+package com.andela.movit.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+class MovementArchive {
+
+    private static final String PREFIX = "movements-";
+
+    private static final String SUFFIX = ".mva";
+
+    private final File directory;
+
+    private final Map<File, ArchiveReader> readers = new HashMap<>();
+
+    private List<Long> months;
+
+    MovementArchive(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the start of the month that is a number of months away from the month containing
+     * the given time.
+     * @param time the time, in milliseconds since the epoch.
+     * @param monthOffset the number of months to move forward (or backward, if negative).
+     * */
+
+    static long getMonthStart(long time, int monthOffset) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.MONTH, monthOffset);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Opens the archives of every month that overlaps a range of time, newest month first.
+     * Months whose file cannot be read are skipped.
+     * @param from the start of the range.
+     * @param to the end of the range (exclusive).
+     * */
+
+    synchronized List<ArchiveReader> open(long from, long to) {
+        List<ArchiveReader> monthReaders = new ArrayList<>();
+        for (long month : getArchivedMonths()) {
+            if (month < to && getMonthStart(month, 1) > from) {
+                try {
+                    monthReaders.add(getReader(month));
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+        }
+        return monthReaders;
+    }
+
+    /**
+     * Returns the highest movement id in the archive, or 0 if the archive is empty.
+     * */
+
+    long getMaxId() {
+        long maxId = 0;
+        for (ArchiveReader reader : openAll()) {
+            for (int row = 0; row < reader.getRowCount(); row++) {
+                maxId = Math.max(maxId, reader.getId(row));
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * Opens the archives of every month, newest month first.
+     * */
+
+    List<ArchiveReader> openAll() {
+        return open(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Archives a month of movements, merging them with the movements already archived for that
+     * month.
+     * @param monthStart the start of the month.
+     * @param rows the movements made during the month.
+     * @throws IOException if the archive cannot be written.
+     * */
+
+    synchronized void write(long monthStart, ArchiveColumns rows) throws IOException {
+        File file = getFile(monthStart);
+        if (file.exists()) {
+            rows = ArchiveColumns.merge(getReader(monthStart).readAll(), rows);
+        }
+        readers.remove(file);
+        months = null;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        FileOutputStream out = new FileOutputStream(tempFile);
+        try {
+            out.write(encode(rows));
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    private byte[] encode(ArchiveColumns rows) {
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[ArchiveFormat.COLUMN_COUNT];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ByteArrayOutputStream();
+        }
+        long firstTimestamp = rows.size > 0 ? rows.timestamps[0] : 0;
+        long firstId = rows.size > 0 ? rows.ids[0] : 0;
+        long previousTimestamp = firstTimestamp;
+        long previousId = firstId;
+        ByteBuffer coordinates = ByteBuffer.allocate(rows.size * 8);
+        for (int row = 0; row < rows.size; row++) {
+            ArchiveFormat.writeVarLong(columns[ArchiveFormat.TIMESTAMPS],
+                    rows.timestamps[row] - previousTimestamp);
+            ArchiveFormat.writeSignedVarLong(columns[ArchiveFormat.IDS],
+                    rows.ids[row] - previousId);
+            previousTimestamp = rows.timestamps[row];
+            previousId = rows.ids[row];
+            coordinates.putInt(row * 4, rows.latitudes[row]);
+            coordinates.putInt(rows.size * 4 + row * 4, rows.longitudes[row]);
+            ArchiveFormat.writeVarLong(columns[ArchiveFormat.DURATIONS],
+                    Math.max(0, rows.durations[row]));
+            ArchiveFormat.writeVarLong(columns[ArchiveFormat.ACTIVITY_IDS], rows.activityIds[row]);
+            ArchiveFormat.writeVarLong(columns[ArchiveFormat.PLACE_IDS], rows.placeIds[row]);
+            ArchiveFormat.writeVarLong(columns[ArchiveFormat.CLUSTER_IDS], rows.clusterIds[row]);
+        }
+        columns[ArchiveFormat.LATITUDES].write(coordinates.array(), 0, rows.size * 4);
+        columns[ArchiveFormat.LONGITUDES].write(coordinates.array(), rows.size * 4, rows.size * 4);
+        int size = ArchiveFormat.HEADER_SIZE;
+        for (ByteArrayOutputStream column : columns) {
+            size += column.size();
+        }
+        ByteBuffer file = ByteBuffer.allocate(size);
+        file.putInt(ArchiveFormat.MAGIC);
+        file.putInt(rows.size);
+        file.putLong(firstTimestamp);
+        file.putLong(firstId);
+        int offset = ArchiveFormat.HEADER_SIZE;
+        for (ByteArrayOutputStream column : columns) {
+            file.putInt(offset);
+            file.putInt(column.size());
+            offset += column.size();
+        }
+        for (ByteArrayOutputStream column : columns) {
+            file.put(column.toByteArray());
+        }
+        return file.array();
+    }
+
+    private ArchiveReader getReader(long monthStart) throws IOException {
+        File file = getFile(monthStart);
+        ArchiveReader reader = readers.get(file);
+        if (reader == null) {
+            reader = ArchiveReader.open(file);
+            readers.put(file, reader);
+        }
+        return reader;
+    }
+
+    private List<Long> getArchivedMonths() {
+        if (months == null) {
+            months = listArchivedMonths();
+        }
+        return months;
+    }
+
+    private List<Long> listArchivedMonths() {
+        List<Long> months = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return months;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                String key = name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+                try {
+                    int monthKey = Integer.parseInt(key);
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.clear();
+                    calendar.set(monthKey / 100, monthKey % 100 - 1, 1);
+                    months.add(calendar.getTimeInMillis());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+        }
+        Collections.sort(months, Collections.<Long>reverseOrder());
+        return months;
+    }
+
+    private File getFile(long monthStart) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(monthStart);
+        String key = String.format(Locale.US, "%04d%02d",
+                calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+        return new File(directory, PREFIX + key + SUFFIX);
+    }
+}
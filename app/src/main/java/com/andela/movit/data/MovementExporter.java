@@ -0,0 +1,116 @@
+/**
+ * This class exports the whole movement history, archived months included, oldest first, to an
+ * output stream in one of the {@code ExportFormat} formats. Movements are streamed from the
+ * database one at a time and written straight out, so memory use does not grow with the size of
+ * the history. An export reports its progress as it goes and can be cancelled from any thread.
+ * Exports run on the calling thread, which must not be the main thread.
+ * */
+
+package com.andela.movit.data;
+
+import android.content.Context;
+
+import com.andela.movit.models.Movement;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+
+public class MovementExporter {
+
+    private static final int PROGRESS_INTERVAL = 500;
+
+    private final DbRepo repo;
+
+    private final ExportFormat format;
+
+    private ExportListener listener;
+
+    private volatile boolean isCancelled;
+
+    /**
+     * Constructs a {@code MovementExporter} object.
+     * @param context any context.
+     * @param format the format to export to.
+     * */
+
+    public MovementExporter(Context context, ExportFormat format) {
+        this.repo = DbRepo.getInstance(context);
+        this.format = format;
+    }
+
+    /**
+     * Sets the callback to be invoked, on the exporting thread, as the export makes progress.
+     * @param listener the callback object.
+     * */
+
+    public void setListener(ExportListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Stops the export at the next movement. The output is left incomplete.
+     * */
+
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * Writes the movement history to an output stream. The stream is flushed but not closed.
+     * @param out the stream to write to.
+     * @return the number of movements written.
+     * @throws IOException if the stream cannot be written.
+     * */
+
+    public long export(OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        final SimpleDateFormat timeFormat = ExportFormat.getTimeFormat();
+        final long totalCount = repo.countMovements();
+        final long[] exportedCount = {0};
+        final IOException[] error = {null};
+        format.writeHeader(writer);
+        repo.streamMovements(new MovementSink() {
+            @Override
+            public boolean accept(Movement movement) {
+                if (isCancelled) {
+                    return false;
+                }
+                try {
+                    format.write(writer, movement, timeFormat);
+                } catch (IOException e) {
+                    error[0] = e;
+                    return false;
+                }
+                exportedCount[0]++;
+                if (exportedCount[0] % PROGRESS_INTERVAL == 0) {
+                    reportProgress(exportedCount[0], totalCount);
+                }
+                return true;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        if (!isCancelled) {
+            format.writeFooter(writer);
+            reportProgress(exportedCount[0], Math.max(totalCount, exportedCount[0]));
+        }
+        writer.flush();
+        return exportedCount[0];
+    }
+
+    private void reportProgress(long exportedCount, long totalCount) {
+        ExportListener progressListener = listener;
+        if (progressListener != null) {
+            progressListener.onProgress(exportedCount, totalCount);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * This interface defines an operation to be performed on each movement streamed out of the
+ * database.
+ * */
+
+package com.andela.movit.data;
+
+import com.andela.movit.models.Movement;
+
+interface MovementSink {
+
+    /**
+     * Receives the next movement.
+     * @return true to receive more movements, or false to stop the stream.
+     * */
+
+    boolean accept(Movement movement);
+}
@@ -0,0 +1,243 @@
+/**
+ * This class provides a write-behind queue for {@code Movement} objects. Movements are collected
+ * on a dedicated background thread and written to the database in a single transaction once the
+ * batch is full, once the oldest queued movement has waited long enough, or when a flush is
+ * requested explicitly (e.g. when tracking stops). Route points are queued and written the same
+ * way, alongside the movements. A batch that fails to be written is kept and retried with an
+ * increasing delay, and only dropped after several failed attempts in a row. The same thread
+ * moves closed months of history into the archive once per process, and re-clusters the
+ * remaining movements into places whenever it has archived any.
+ * */
+
+package com.andela.movit.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+
+import com.andela.movit.models.Movement;
+import com.andela.movit.models.TrackPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovementWriter {
+
+    private static final int MAX_BATCH_SIZE = 20;
+
+    private static final long MAX_BATCH_AGE = 60 * 1000;
+
+    private static final long RETRY_DELAY = 5 * 1000;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final int WRITE = 1;
+
+    private static final int FLUSH = 2;
+
+    private static final int ARCHIVE = 3;
+
+    private static final int WRITE_TRACK_POINT = 4;
+
+    private static final int MONTHS_KEPT = 3;
+
+    private static MovementWriter instance;
+
+    private final DbRepo repo;
+
+    private final List<Movement> pendingMovements = new ArrayList<>();
+
+    private final List<TrackPoint> pendingTrackPoints = new ArrayList<>();
+
+    private final Handler writeHandler;
+
+    private final Handler mainHandler;
+
+    private volatile DbCallback dbCallback;
+
+    private int failedAttempts;
+
+    private MovementWriter(Context context) {
+        repo = DbRepo.getInstance(context);
+        HandlerThread thread = new HandlerThread("MovementWriter");
+        thread.start();
+        writeHandler = new WriteHandler(thread.getLooper());
+        mainHandler = new Handler(Looper.getMainLooper());
+        writeHandler.sendEmptyMessage(ARCHIVE);
+    }
+
+    /**
+     * Returns the process-wide writer, creating it on first use.
+     * @param context any context; the application context is retained.
+     * */
+
+    public static synchronized MovementWriter getInstance(Context context) {
+        if (instance == null) {
+            instance = new MovementWriter(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the callback that will be invoked on the main thread after each batch is written. On
+     * success, the result is the number of rows written.
+     * @param dbCallback the callback object.
+     * */
+
+    public void setDbCallback(DbCallback dbCallback) {
+        this.dbCallback = dbCallback;
+    }
+
+    /**
+     * Queues a {@code Movement} object to be written to the database. The object must not be
+     * modified after it has been queued.
+     * @param movement the movement to write.
+     * */
+
+    public void write(Movement movement) {
+        writeHandler.obtainMessage(WRITE, movement).sendToTarget();
+    }
+
+    /**
+     * Queues a point of a route to be written to the database.
+     * @param point the point to write.
+     * */
+
+    public void writeTrackPoint(TrackPoint point) {
+        writeHandler.obtainMessage(WRITE_TRACK_POINT, point).sendToTarget();
+    }
+
+    /**
+     * Writes all queued movements and route points to the database as soon as possible.
+     * */
+
+    public void flush() {
+        writeHandler.sendEmptyMessage(FLUSH);
+    }
+
+    private void enqueue(Movement movement) {
+        pendingMovements.add(movement);
+        if (pendingMovements.size() >= MAX_BATCH_SIZE && failedAttempts == 0) {
+            flushAll();
+        } else if (pendingMovements.size() == 1) {
+            writeHandler.sendEmptyMessageDelayed(FLUSH, MAX_BATCH_AGE);
+        }
+    }
+
+    private void enqueueTrackPoint(TrackPoint point) {
+        pendingTrackPoints.add(point);
+        if (pendingTrackPoints.size() >= MAX_BATCH_SIZE && failedAttempts == 0) {
+            flushAll();
+        } else if (pendingTrackPoints.size() == 1 && !writeHandler.hasMessages(FLUSH)) {
+            writeHandler.sendEmptyMessageDelayed(FLUSH, MAX_BATCH_AGE);
+        }
+    }
+
+    private void flushAll() {
+        writeHandler.removeMessages(FLUSH);
+        boolean isTrackWritten = flushPendingTrackPoints();
+        boolean isMovementWritten = flushPendingMovements();
+        if (isTrackWritten && isMovementWritten) {
+            failedAttempts = 0;
+        } else {
+            scheduleRetry();
+        }
+    }
+
+    private void scheduleRetry() {
+        failedAttempts++;
+        if (failedAttempts >= MAX_ATTEMPTS) {
+            pendingTrackPoints.clear();
+            pendingMovements.clear();
+            failedAttempts = 0;
+            return;
+        }
+        writeHandler.sendEmptyMessageDelayed(FLUSH, RETRY_DELAY << (failedAttempts - 1));
+    }
+
+    private boolean flushPendingTrackPoints() {
+        if (pendingTrackPoints.isEmpty()) {
+            return true;
+        }
+        try {
+            repo.addTrackPoints(pendingTrackPoints);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+        pendingTrackPoints.clear();
+        return true;
+    }
+
+    private boolean flushPendingMovements() {
+        if (pendingMovements.isEmpty()) {
+            return true;
+        }
+        DbResult dbResult;
+        try {
+            dbResult = new DbResult(repo.addMovements(pendingMovements), null);
+        } catch (Exception e) {
+            dbResult = new DbResult(null, e);
+        }
+        if (dbResult.getError() == null) {
+            pendingMovements.clear();
+        }
+        deliverResult(dbResult);
+        return dbResult.getError() == null;
+    }
+
+    private void archiveClosedMonths() {
+        try {
+            if (repo.archiveClosedMonths(MONTHS_KEPT) > 0) {
+                repo.reclusterMovements();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void deliverResult(final DbResult dbResult) {
+        final DbCallback callback = dbCallback;
+        if (callback == null) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (dbResult.getError() == null) {
+                    callback.onOperationSuccess(dbResult.getResult());
+                } else {
+                    callback.onOperationFail(dbResult.getError().getMessage());
+                }
+            }
+        });
+    }
+
+    private final class WriteHandler extends Handler {
+        public WriteHandler(Looper looper) {
+            super(looper);
+        }
+
+        @Override
+        public void handleMessage(Message msg) {
+            switch (msg.what) {
+                case WRITE:
+                    enqueue((Movement)msg.obj);
+                    break;
+                case WRITE_TRACK_POINT:
+                    enqueueTrackPoint((TrackPoint)msg.obj);
+                    break;
+                case FLUSH:
+                    flushAll();
+                    break;
+                case ARCHIVE:
+                    archiveClosedMonths();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/**
+ * This class maintains the {@code clusters} table of places derived from coordinates, and the
+ * cluster id of every movement. As movements are saved they join the nearest place within the
+ * clustering radius. A stay point (a movement made standing still) far from every known place
+ * starts a new place once {@code StayPointClusterer.MIN_POINTS} stay points without a place lie
+ * within the radius of it, and those stay points join the new place. {@code rebuild} re-clusters
+ * the whole history with {@code StayPointClusterer} as an occasional batch job, keeping the ids
+ * of places that survive so that ids stay stable. Places that are only referred to by archived
+ * movements are left untouched.
+ * */
+
+package com.andela.movit.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.andela.movit.config.ActivityTypes;
+import com.andela.movit.location.GeoMath;
+import com.andela.movit.location.StayPointClusterer;
+import com.andela.movit.models.Movement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PlaceClusters {
+
+    static final String TABLE = "clusters";
+
+    static final String POINT_COUNT = "point_count";
+
+    static final String INDEX_GRID_CELL = "idx_clusters_grid_cell";
+
+    private static final String CREATE = "CREATE TABLE IF NOT EXISTS "
+            + TABLE + " ("
+            + DbRepo.ID + " INTEGER PRIMARY KEY, "
+            + DbRepo.LATITUDE + " FLOAT NOT NULL, "
+            + DbRepo.LONGITUDE + " FLOAT NOT NULL, "
+            + POINT_COUNT + " INTEGER NOT NULL, "
+            + DbRepo.GRID_CELL + " INTEGER NOT NULL);";
+
+    private static final String CREATE_INDEX_GRID_CELL = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_GRID_CELL + " ON "
+            + TABLE + " ("
+            + DbRepo.GRID_CELL + ");";
+
+    private static final String INSERT = "INSERT INTO "
+            + TABLE + " ("
+            + DbRepo.LATITUDE + ", "
+            + DbRepo.LONGITUDE + ", "
+            + POINT_COUNT + ", "
+            + DbRepo.GRID_CELL + ", "
+            + DbRepo.ID + ") VALUES (?, ?, ?, ?, ?);";
+
+    private static final String UPDATE = "UPDATE "
+            + TABLE + " SET "
+            + DbRepo.LATITUDE + " = ?, "
+            + DbRepo.LONGITUDE + " = ?, "
+            + POINT_COUNT + " = ?, "
+            + DbRepo.GRID_CELL + " = ? WHERE "
+            + DbRepo.ID + " = ?;";
+
+    private static final String CLEAR_LIVE = "DELETE FROM "
+            + TABLE + " WHERE "
+            + DbRepo.ID + " IN (SELECT "
+            + DbRepo.CLUSTER_ID + " FROM "
+            + DbRepo.TABLE + ");";
+
+    private static final String GET_MAX_ID = "SELECT MAX("
+            + DbRepo.ID + ") FROM "
+            + TABLE + ";";
+
+    private static final String GET_POINTS = "SELECT "
+            + DbRepo.ID + ", "
+            + DbRepo.ACT_ID + ", "
+            + DbRepo.LATITUDE + ", "
+            + DbRepo.LONGITUDE + ", "
+            + DbRepo.CLUSTER_ID + " FROM "
+            + DbRepo.TABLE + ";";
+
+    private static final String GET_UNASSIGNED_STAYS = "SELECT "
+            + DbRepo.ID + ", "
+            + DbRepo.LATITUDE + ", "
+            + DbRepo.LONGITUDE + " FROM "
+            + DbRepo.TABLE + " WHERE "
+            + DbRepo.ACT_ID + " = " + ActivityTypes.STANDING_STILL + " AND "
+            + DbRepo.CLUSTER_ID + " IS NULL AND ";
+
+    private static final String SET_CLUSTER_ID = "UPDATE "
+            + DbRepo.TABLE + " SET "
+            + DbRepo.CLUSTER_ID + " = ? WHERE "
+            + DbRepo.ID + " = ?;";
+
+    private final SQLiteDatabase db;
+
+    private SQLiteStatement updateStatement;
+
+    private SQLiteStatement insertStatement;
+
+    private SQLiteStatement setClusterIdStatement;
+
+    private long newClusterId;
+
+    PlaceClusters(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * Creates the clusters table.
+     * */
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(CREATE);
+        db.execSQL(CREATE_INDEX_GRID_CELL);
+    }
+
+    /**
+     * Finds the place a newly recorded movement belongs to. A stay point moves the centre of its
+     * place towards it, or starts a new place with the stay points without a place around it.
+     * Must be called inside the transaction that saves the movement.
+     * @return the id of the place, or 0 if the movement does not belong to any place.
+     * */
+
+    long assign(Movement movement, long activityId) {
+        double latitude = movement.getLatitude();
+        double longitude = movement.getLongitude();
+        boolean isStay = activityId == ActivityTypes.STANDING_STILL;
+        newClusterId = 0;
+        Cluster nearest = findNearest(latitude, longitude);
+        if (nearest == null) {
+            return isStay ? startCluster(latitude, longitude) : 0;
+        }
+        if (isStay) {
+            long pointCount = nearest.pointCount + 1;
+            double newLatitude = nearest.latitude + (latitude - nearest.latitude) / pointCount;
+            double newLongitude = nearest.longitude + (longitude - nearest.longitude) / pointCount;
+            updateCluster(nearest.id, newLatitude, newLongitude, pointCount);
+        }
+        return nearest.id;
+    }
+
+    /**
+     * Returns the id of the place started by the last call to {@code assign}, or 0 if it did not
+     * start one.
+     * */
+
+    long getNewClusterId() {
+        return newClusterId;
+    }
+
+    private Cluster findNearest(double latitude, double longitude) {
+        List<long[]> ranges = getRangesAround(latitude, longitude);
+        String query = "SELECT "
+                + DbRepo.ID + ", "
+                + DbRepo.LATITUDE + ", "
+                + DbRepo.LONGITUDE + ", "
+                + POINT_COUNT + " FROM "
+                + TABLE + " WHERE "
+                + SpatialGrid.getRangeCondition(ranges.size()) + ";";
+        Cursor cursor = db.rawQuery(query, getRangeArgs(ranges));
+        Cluster nearest = null;
+        double nearestDistance = StayPointClusterer.RADIUS;
+        while (cursor.moveToNext()) {
+            double distance = GeoMath.distance(latitude, longitude,
+                    cursor.getDouble(1), cursor.getDouble(2));
+            if (distance <= nearestDistance) {
+                nearestDistance = distance;
+                nearest = new Cluster(cursor.getLong(0), cursor.getDouble(1),
+                        cursor.getDouble(2), cursor.getLong(3));
+            }
+        }
+        cursor.close();
+        return nearest;
+    }
+
+    private long startCluster(double latitude, double longitude) {
+        List<long[]> ranges = getRangesAround(latitude, longitude);
+        Cursor cursor = db.rawQuery(GET_UNASSIGNED_STAYS
+                + SpatialGrid.getRangeCondition(ranges.size()) + ";", getRangeArgs(ranges));
+        List<Long> rowIds = new ArrayList<>();
+        double latitudeSum = latitude;
+        double longitudeSum = longitude;
+        while (cursor.moveToNext()) {
+            double distance = GeoMath.distance(latitude, longitude,
+                    cursor.getDouble(1), cursor.getDouble(2));
+            if (distance <= StayPointClusterer.RADIUS) {
+                rowIds.add(cursor.getLong(0));
+                latitudeSum += cursor.getDouble(1);
+                longitudeSum += cursor.getDouble(2);
+            }
+        }
+        cursor.close();
+        int pointCount = rowIds.size() + 1;
+        if (pointCount < StayPointClusterer.MIN_POINTS) {
+            return 0;
+        }
+        double centreLatitude = latitudeSum / pointCount;
+        double centreLongitude = longitudeSum / pointCount;
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement(INSERT);
+            setClusterIdStatement = db.compileStatement(SET_CLUSTER_ID);
+        }
+        insertStatement.bindDouble(1, centreLatitude);
+        insertStatement.bindDouble(2, centreLongitude);
+        insertStatement.bindLong(3, pointCount);
+        insertStatement.bindLong(4, SpatialGrid.getCell(centreLatitude, centreLongitude));
+        insertStatement.bindNull(5);
+        newClusterId = insertStatement.executeInsert();
+        for (long rowId : rowIds) {
+            setClusterIdStatement.bindLong(1, newClusterId);
+            setClusterIdStatement.bindLong(2, rowId);
+            setClusterIdStatement.executeUpdateDelete();
+        }
+        return newClusterId;
+    }
+
+    private List<long[]> getRangesAround(double latitude, double longitude) {
+        double radius = StayPointClusterer.RADIUS;
+        double latitudeSpan = GeoMath.metresToLatitude(radius);
+        double longitudeSpan = GeoMath.metresToLongitude(
+                radius, Math.abs(latitude) + latitudeSpan);
+        return SpatialGrid.getCellRanges(
+                latitude - latitudeSpan, longitude - longitudeSpan,
+                latitude + latitudeSpan, longitude + longitudeSpan);
+    }
+
+    private String[] getRangeArgs(List<long[]> ranges) {
+        String[] args = new String[ranges.size() * 2];
+        SpatialGrid.putRangeArgs(ranges, args, 0);
+        return args;
+    }
+
+    private void updateCluster(long clusterId, double latitude, double longitude,
+                               long pointCount) {
+        if (updateStatement == null) {
+            updateStatement = db.compileStatement(UPDATE);
+        }
+        updateStatement.bindDouble(1, latitude);
+        updateStatement.bindDouble(2, longitude);
+        updateStatement.bindLong(3, pointCount);
+        updateStatement.bindLong(4, SpatialGrid.getCell(latitude, longitude));
+        updateStatement.bindLong(5, clusterId);
+        updateStatement.executeUpdateDelete();
+    }
+
+    /**
+     * Re-clusters every movement in the database. Places that keep most of their movements keep
+     * their ids. Must be called inside a transaction.
+     * */
+
+    void rebuild() {
+        Cursor cursor = db.rawQuery(GET_POINTS, null);
+        int count = cursor.getCount();
+        long[] rowIds = new long[count];
+        long[] oldClusterIds = new long[count];
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        boolean[] isStay = new boolean[count];
+        for (int i = 0; cursor.moveToNext(); i++) {
+            rowIds[i] = cursor.getLong(0);
+            isStay[i] = cursor.getLong(1) == ActivityTypes.STANDING_STILL;
+            latitudes[i] = cursor.getDouble(2);
+            longitudes[i] = cursor.getDouble(3);
+            oldClusterIds[i] = cursor.getLong(4);
+        }
+        cursor.close();
+        StayPointClusterer clusterer = new StayPointClusterer(latitudes, longitudes, isStay);
+        int[] labels = clusterer.cluster();
+        int clusterCount = clusterer.getClusterCount();
+        long[] clusterIds = getStableIds(labels, oldClusterIds, clusterCount, getMaxId());
+        saveClusters(labels, clusterIds, latitudes, longitudes, isStay);
+        SQLiteStatement statement = db.compileStatement(SET_CLUSTER_ID);
+        for (int i = 0; i < count; i++) {
+            long clusterId = labels[i] == StayPointClusterer.NO_CLUSTER ? 0 : clusterIds[labels[i]];
+            if (clusterId != oldClusterIds[i]) {
+                if (clusterId == 0) {
+                    statement.bindNull(1);
+                } else {
+                    statement.bindLong(1, clusterId);
+                }
+                statement.bindLong(2, rowIds[i]);
+                statement.executeUpdateDelete();
+            }
+        }
+        statement.close();
+    }
+
+    private long getMaxId() {
+        Cursor cursor = db.rawQuery(GET_MAX_ID, null);
+        long maxId = cursor.moveToNext() ? cursor.getLong(0) : 0;
+        cursor.close();
+        return maxId;
+    }
+
+    private long[] getStableIds(int[] labels, long[] oldClusterIds, int clusterCount,
+                                long maxOldId) {
+        final int[] sizes = new int[clusterCount];
+        List<Map<Long, Integer>> votes = new ArrayList<>(clusterCount);
+        for (int i = 0; i < clusterCount; i++) {
+            votes.add(new HashMap<Long, Integer>());
+        }
+        for (int i = 0; i < labels.length; i++) {
+            maxOldId = Math.max(maxOldId, oldClusterIds[i]);
+            if (labels[i] == StayPointClusterer.NO_CLUSTER) {
+                continue;
+            }
+            sizes[labels[i]]++;
+            if (oldClusterIds[i] != 0) {
+                Integer vote = votes.get(labels[i]).get(oldClusterIds[i]);
+                votes.get(labels[i]).put(oldClusterIds[i], vote == null ? 1 : vote + 1);
+            }
+        }
+        Integer[] bySize = new Integer[clusterCount];
+        for (int i = 0; i < clusterCount; i++) {
+            bySize[i] = i;
+        }
+        Arrays.sort(bySize, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                return sizes[right] - sizes[left];
+            }
+        });
+        Map<Long, Boolean> takenIds = new HashMap<>();
+        long[] clusterIds = new long[clusterCount];
+        for (int label : bySize) {
+            long bestId = 0;
+            int bestVotes = 0;
+            for (Map.Entry<Long, Integer> vote : votes.get(label).entrySet()) {
+                if (vote.getValue() > bestVotes && !takenIds.containsKey(vote.getKey())) {
+                    bestId = vote.getKey();
+                    bestVotes = vote.getValue();
+                }
+            }
+            clusterIds[label] = bestId == 0 ? ++maxOldId : bestId;
+            takenIds.put(clusterIds[label], true);
+        }
+        return clusterIds;
+    }
+
+    private void saveClusters(int[] labels, long[] clusterIds, double[] latitudes,
+                              double[] longitudes, boolean[] isStay) {
+        int clusterCount = clusterIds.length;
+        double[] latitudeSums = new double[clusterCount];
+        double[] longitudeSums = new double[clusterCount];
+        long[] pointCounts = new long[clusterCount];
+        for (int i = 0; i < labels.length; i++) {
+            if (isStay[i] && labels[i] != StayPointClusterer.NO_CLUSTER) {
+                latitudeSums[labels[i]] += latitudes[i];
+                longitudeSums[labels[i]] += longitudes[i];
+                pointCounts[labels[i]]++;
+            }
+        }
+        db.execSQL(CLEAR_LIVE);
+        SQLiteStatement statement = db.compileStatement(INSERT);
+        for (int label = 0; label < clusterCount; label++) {
+            double latitude = latitudeSums[label] / pointCounts[label];
+            double longitude = longitudeSums[label] / pointCounts[label];
+            statement.bindDouble(1, latitude);
+            statement.bindDouble(2, longitude);
+            statement.bindLong(3, pointCounts[label]);
+            statement.bindLong(4, SpatialGrid.getCell(latitude, longitude));
+            statement.bindLong(5, clusterIds[label]);
+            statement.executeInsert();
+        }
+        statement.close();
+    }
+
+    private static class Cluster {
+
+        private final long id;
+
+        private final double latitude;
+
+        private final double longitude;
+
+        private final long pointCount;
+
+        private Cluster(long id, double latitude, double longitude, long pointCount) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.pointCount = pointCount;
+        }
+    }
+}
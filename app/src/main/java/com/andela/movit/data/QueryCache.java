@@ -0,0 +1,198 @@
+/**
+ * This class caches the results of the {@code DbRepo} list queries, keyed by the kind of query
+ * and its parameters, so that reopening a list does not run the same query again. The cache is
+ * bounded by the total number of rows it holds, evicting the least recently used results first.
+ * Results are invalidated precisely: saving a movement only drops the results of its own day,
+ * of its own place name and place, and the visits if it is a visit. A result read from the
+ * database while a write was being committed is not cached, since it may already be stale.
+ * */
+
+package com.andela.movit.data;
+
+import android.util.LruCache;
+
+import com.andela.movit.config.ActivityTypes;
+import com.andela.movit.models.Movement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class QueryCache {
+
+    private static final int MAX_ROWS = 2000;
+
+    private static final String BY_DATE = "date:";
+
+    private static final String BY_PLACE = "place:";
+
+    private static final String BY_CLUSTER = "cluster:";
+
+    static final String VISITS_KEY = "visits";
+
+    private final LruCache<String, Entry> entries = new LruCache<String, Entry>(MAX_ROWS) {
+        @Override
+        protected int sizeOf(String key, Entry entry) {
+            return entry.rows.size() + 1;
+        }
+    };
+
+    private long generation;
+
+    /**
+     * Returns the key of a page of movements made between two times.
+     * */
+
+    static String getDateKey(long from, long to, Movement after, int limit) {
+        return BY_DATE + from + ":" + to + getPageKey(after, limit);
+    }
+
+    /**
+     * Returns the key of a page of movements made at a place.
+     * */
+
+    static String getPlaceKey(String placeName, Movement after, int limit) {
+        return BY_PLACE + getPageKey(after, limit) + ":" + placeName;
+    }
+
+    /**
+     * Returns the key of a page of movements made at a place found by clustering.
+     * */
+
+    static String getClusterKey(long clusterId, Movement after, int limit) {
+        return BY_CLUSTER + clusterId + getPageKey(after, limit);
+    }
+
+    private static String getPageKey(Movement after, int limit) {
+        if (after == null) {
+            return ":" + limit;
+        }
+        return ":" + limit + ":" + after.getTimeStamp() + ":" + after.getId();
+    }
+
+    /**
+     * Returns the current generation, to be passed to {@code put} with the result of a query
+     * that is about to run.
+     * */
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns a copy of a cached result, or null if there is none.
+     * */
+
+    <T> List<T> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return new ArrayList<>((List<T>)entry.rows);
+    }
+
+    /**
+     * Caches the result of a query covering a range of times, unless the cache has been
+     * invalidated since the query started.
+     * */
+
+    synchronized void putByDate(String key, long generation, long from, long to,
+                                List<?> rows) {
+        put(key, generation, new Entry(from, to, null, 0, false, new ArrayList<>(rows)));
+    }
+
+    /**
+     * Caches the result of a query for a place, unless the cache has been invalidated since the
+     * query started.
+     * */
+
+    synchronized void putByPlace(String key, long generation, String placeName, List<?> rows) {
+        put(key, generation, new Entry(0, 0, placeName, 0, false, new ArrayList<>(rows)));
+    }
+
+    /**
+     * Caches the result of a query for a place found by clustering, unless the cache has been
+     * invalidated since the query started.
+     * */
+
+    synchronized void putByCluster(String key, long generation, long clusterId, List<?> rows) {
+        put(key, generation, new Entry(0, 0, null, clusterId, false, new ArrayList<>(rows)));
+    }
+
+    /**
+     * Caches the list of visits, unless the cache has been invalidated since the query started.
+     * */
+
+    synchronized void putVisits(long generation, List<?> rows) {
+        put(VISITS_KEY, generation, new Entry(0, 0, null, 0, true, new ArrayList<>(rows)));
+    }
+
+    private void put(String key, long generation, Entry entry) {
+        if (generation == this.generation) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Drops every result that a saved or updated movement may appear in. Must be called after
+     * the change has been committed.
+     * */
+
+    synchronized void invalidate(Movement movement) {
+        generation++;
+        boolean isVisit = movement.getActivityId() == ActivityTypes.STANDING_STILL
+                && movement.getClusterId() != 0;
+        for (Map.Entry<String, Entry> cached : entries.snapshot().entrySet()) {
+            if (cached.getValue().contains(movement, isVisit)) {
+                entries.remove(cached.getKey());
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result.
+     * */
+
+    synchronized void clear() {
+        generation++;
+        entries.evictAll();
+    }
+
+    private static class Entry {
+
+        private final long from;
+
+        private final long to;
+
+        private final String placeName;
+
+        private final long clusterId;
+
+        private final boolean isVisits;
+
+        private final List<?> rows;
+
+        private Entry(long from, long to, String placeName, long clusterId, boolean isVisits,
+                      List<?> rows) {
+            this.from = from;
+            this.to = to;
+            this.placeName = placeName;
+            this.clusterId = clusterId;
+            this.isVisits = isVisits;
+            this.rows = rows;
+        }
+
+        private boolean contains(Movement movement, boolean isVisit) {
+            if (isVisits) {
+                return isVisit;
+            }
+            if (placeName != null) {
+                return placeName.equals(movement.getPlaceName());
+            }
+            if (clusterId != 0) {
+                return clusterId == movement.getClusterId();
+            }
+            return movement.getTimeStamp() > from && movement.getTimeStamp() < to;
+        }
+    }
+}
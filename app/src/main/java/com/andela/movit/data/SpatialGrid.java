@@ -0,0 +1,109 @@
+/**
+ * This class maps coordinates onto a fixed grid of cells for indexing movements by location.
+ * Cells are one thousandth of a degree on each side (about 110m north to south) and are numbered
+ * row by row from the south-west corner, so each row of cells covered by a bounding box is one
+ * contiguous range of cell numbers. A bounding box query then becomes a few indexed range scans
+ * on the cell column, followed by an exact check on the coordinates.
+ * */
+
+package com.andela.movit.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpatialGrid {
+
+    static final int CELLS_PER_DEGREE = 1000;
+
+    static final long ROWS = 180L * CELLS_PER_DEGREE;
+
+    static final long COLUMNS = 360L * CELLS_PER_DEGREE;
+
+    private static final int MAX_ROW_RANGES = 32;
+
+    /**
+     * Returns the number of the cell containing the given coordinates.
+     * @param latitude the latitude, from -90 to 90.
+     * @param longitude the longitude, from -180 to 180.
+     * */
+
+    public static long getCell(double latitude, double longitude) {
+        return getRow(latitude) * COLUMNS + getColumn(longitude);
+    }
+
+    /**
+     * Returns the SQL expression that computes the cell number from the latitude and longitude
+     * columns, for backfilling rows saved before the grid existed. It must stay in step with
+     * {@code getCell}.
+     * */
+
+    static String getCellExpression() {
+        return "MIN(MAX(CAST((" + DbRepo.LATITUDE + " + 90) * " + CELLS_PER_DEGREE
+                + " AS INTEGER), 0), " + (ROWS - 1) + ") * " + COLUMNS
+                + " + MIN(MAX(CAST((" + DbRepo.LONGITUDE + " + 180) * " + CELLS_PER_DEGREE
+                + " AS INTEGER), 0), " + (COLUMNS - 1) + ")";
+    }
+
+    /**
+     * Returns the ranges of cell numbers that cover a bounding box, as pairs of first and last
+     * cell. Each row of the box contributes one range; very tall boxes are covered by a single
+     * range from the first to the last cell instead, which is wider but keeps the query short.
+     * */
+
+    static List<long[]> getCellRanges(double minLatitude, double minLongitude,
+                                      double maxLatitude, double maxLongitude) {
+        long firstRow = getRow(minLatitude);
+        long lastRow = getRow(maxLatitude);
+        long firstColumn = getColumn(minLongitude);
+        long lastColumn = getColumn(maxLongitude);
+        List<long[]> ranges = new ArrayList<>();
+        if (lastRow - firstRow + 1 > MAX_ROW_RANGES) {
+            ranges.add(new long[] {
+                    firstRow * COLUMNS + firstColumn,
+                    lastRow * COLUMNS + lastColumn
+            });
+            return ranges;
+        }
+        for (long row = firstRow; row <= lastRow; row++) {
+            ranges.add(new long[] {row * COLUMNS + firstColumn, row * COLUMNS + lastColumn});
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns a condition that matches the grid cell column against a number of ranges, with a
+     * pair of placeholders for each range.
+     * */
+
+    static String getRangeCondition(int rangeCount) {
+        StringBuilder condition = new StringBuilder("(");
+        for (int i = 0; i < rangeCount; i++) {
+            condition.append(i == 0 ? "" : " OR ")
+                    .append(DbRepo.GRID_CELL).append(" BETWEEN ? AND ?");
+        }
+        return condition.append(")").toString();
+    }
+
+    /**
+     * Copies the bounds of the given ranges into an argument array, starting at an offset.
+     * */
+
+    static void putRangeArgs(List<long[]> ranges, String[] args, int offset) {
+        for (int i = 0; i < ranges.size(); i++) {
+            args[offset + i * 2] = Long.toString(ranges.get(i)[0]);
+            args[offset + i * 2 + 1] = Long.toString(ranges.get(i)[1]);
+        }
+    }
+
+    private static long getRow(double latitude) {
+        return clamp((long)((latitude + 90) * CELLS_PER_DEGREE), ROWS - 1);
+    }
+
+    private static long getColumn(double longitude) {
+        return clamp((long)((longitude + 180) * CELLS_PER_DEGREE), COLUMNS - 1);
+    }
+
+    private static long clamp(long value, long max) {
+        return Math.min(Math.max(value, 0), max);
+    }
+}
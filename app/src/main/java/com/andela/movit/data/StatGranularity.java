@@ -0,0 +1,66 @@
+/**
+ * This enum defines the time buckets that activity statistics are rolled up into. Buckets follow
+ * the device's calendar and time zone, so a day bucket runs from local midnight to local midnight
+ * and a week bucket starts on the locale's first day of the week.
+ * */
+
+package com.andela.movit.data;
+
+import java.util.Calendar;
+
+public enum StatGranularity {
+    HOUR(1, Calendar.HOUR_OF_DAY),
+    DAY(2, Calendar.DAY_OF_MONTH),
+    WEEK(3, Calendar.WEEK_OF_YEAR);
+
+    private final int code;
+
+    private final int calendarField;
+
+    StatGranularity(int code, int calendarField) {
+        this.code = code;
+        this.calendarField = calendarField;
+    }
+
+    /**
+     * Returns the value that identifies this granularity in the database.
+     * */
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the start of the bucket that contains the given time.
+     * @param time the time, in milliseconds since the epoch.
+     * */
+
+    public long getBucketStart(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (this != HOUR) {
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+        }
+        if (this == WEEK) {
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            int daysIntoWeek = (dayOfWeek - calendar.getFirstDayOfWeek() + 7) % 7;
+            calendar.add(Calendar.DAY_OF_MONTH, -daysIntoWeek);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Returns the start of the bucket that follows the given one.
+     * @param bucketStart the start of a bucket, as returned by {@code getBucketStart}.
+     * */
+
+    public long getNextBucketStart(long bucketStart) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(bucketStart);
+        calendar.add(calendarField, 1);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * This class maintains the {@code track_points} table, which holds the simplified route of every
+ * tracking session. Points are simplified by {@code TrackSimplifier} before they are saved, so
+ * a route costs a fraction of the rows its raw fixes would.
+ * */
+
+package com.andela.movit.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.andela.movit.models.TrackPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TrackPoints {
+
+    static final String TABLE = "track_points";
+
+    static final String SESSION_ID = "session_id";
+
+    static final String INDEX_SESSION_TIMESTAMP = "idx_track_points_session_timestamp";
+
+    private static final String CREATE = "CREATE TABLE IF NOT EXISTS "
+            + TABLE + " ("
+            + DbRepo.ID + " INTEGER PRIMARY KEY, "
+            + SESSION_ID + " BIGINT NOT NULL, "
+            + DbRepo.TIMESTAMP + " BIGINT NOT NULL, "
+            + DbRepo.LATITUDE + " FLOAT NOT NULL, "
+            + DbRepo.LONGITUDE + " FLOAT NOT NULL);";
+
+    private static final String CREATE_INDEX_SESSION_TIMESTAMP = "CREATE INDEX IF NOT EXISTS "
+            + INDEX_SESSION_TIMESTAMP + " ON "
+            + TABLE + " ("
+            + SESSION_ID + ", "
+            + DbRepo.TIMESTAMP + ");";
+
+    private static final String INSERT = "INSERT INTO "
+            + TABLE + " ("
+            + SESSION_ID + ", "
+            + DbRepo.TIMESTAMP + ", "
+            + DbRepo.LATITUDE + ", "
+            + DbRepo.LONGITUDE + ") VALUES (?, ?, ?, ?);";
+
+    private static final String GET_TRACK = "SELECT "
+            + DbRepo.TIMESTAMP + ", "
+            + DbRepo.LATITUDE + ", "
+            + DbRepo.LONGITUDE + " FROM "
+            + TABLE + " WHERE "
+            + SESSION_ID + " = ? ORDER BY "
+            + DbRepo.TIMESTAMP + ", "
+            + DbRepo.ID + ";";
+
+    private final SQLiteDatabase db;
+
+    private SQLiteStatement insertStatement;
+
+    TrackPoints(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * Creates the table and its index.
+     * */
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(CREATE);
+        db.execSQL(CREATE_INDEX_SESSION_TIMESTAMP);
+    }
+
+    /**
+     * Saves a point of a route.
+     * @return the id of the row created.
+     * */
+
+    long insert(TrackPoint point) {
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement(INSERT);
+        }
+        insertStatement.bindLong(1, point.getSessionId());
+        insertStatement.bindLong(2, point.getTimeStamp());
+        insertStatement.bindDouble(3, point.getLatitude());
+        insertStatement.bindDouble(4, point.getLongitude());
+        return insertStatement.executeInsert();
+    }
+
+    /**
+     * Fetches the route of a session, in the order it was travelled.
+     * */
+
+    List<TrackPoint> getTrack(long sessionId) {
+        Cursor cursor = db.rawQuery(GET_TRACK, new String[] {Long.toString(sessionId)});
+        List<TrackPoint> points = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            points.add(new TrackPoint(sessionId, cursor.getLong(0), cursor.getDouble(1),
+                    cursor.getDouble(2)));
+        }
+        cursor.close();
+        return points;
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * This class maintains the {@code visits} table, a per-place aggregate of the time spent standing
+ * still at each place: the total duration, the number of visits and when the place was last
+ * seen. Places are the clusters of {@code PlaceClusters}, so every address resolved around the
+ * same spot counts towards one place, which is named after its most recently named stay. The
+ * aggregate is updated as every movement is saved, so listing visits costs one row per place
+ * instead of a scan over every movement ever logged. Places are left out until one of their stays
+ * has a place name. The share of archived movements is also kept in {@code archived_visits}, as
+ * their places never change, so that the aggregate can be refilled without reading the archive.
+ * */
+
+package com.andela.movit.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.andela.movit.config.ActivityTypes;
+import com.andela.movit.models.Movement;
+import com.andela.movit.models.Visit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class VisitAggregates {
+
+    static final String TABLE = "visits";
+
+    static final String ARCHIVED_TABLE = "archived_visits";
+
+    static final String PLACE_ID = "place_id";
+
+    static final String TOTAL_DURATION = "total_duration";
+
+    static final String VISIT_COUNT = "visit_count";
+
+    static final String LAST_SEEN = "last_seen";
+
+    private static final String IS_STAY = DbRepo.ACT_ID + " = " + ActivityTypes.STANDING_STILL;
+
+    private static final String COLUMNS = DbRepo.CLUSTER_ID + ", "
+            + PLACE_ID + ", "
+            + TOTAL_DURATION + ", "
+            + VISIT_COUNT + ", "
+            + LAST_SEEN;
+
+    private static final String LIVE_TOTALS = "SELECT "
+            + DbRepo.CLUSTER_ID + ", (SELECT "
+            + DbRepo.PLC_ID + " FROM "
+            + DbRepo.TABLE + " named WHERE named."
+            + DbRepo.CLUSTER_ID + " = " + DbRepo.TABLE + "." + DbRepo.CLUSTER_ID + " AND named."
+            + IS_STAY + " AND named."
+            + DbRepo.PLC_ID + " IS NOT NULL ORDER BY named."
+            + DbRepo.TIMESTAMP + " DESC LIMIT 1), SUM("
+            + DbRepo.DURATION + "), COUNT(*), MAX("
+            + DbRepo.TIMESTAMP + ") FROM "
+            + DbRepo.TABLE + " WHERE "
+            + IS_STAY + " AND "
+            + DbRepo.CLUSTER_ID + " IS NOT NULL";
+
+    private static final String CLEAR = "DELETE FROM " + TABLE + ";";
+
+    private static final String BACKFILL = "INSERT INTO "
+            + TABLE + " (" + COLUMNS + ") "
+            + LIVE_TOTALS + " GROUP BY "
+            + DbRepo.CLUSTER_ID + ";";
+
+    private static final String REFRESH = "INSERT OR REPLACE INTO "
+            + TABLE + " (" + COLUMNS + ") "
+            + LIVE_TOTALS + " AND "
+            + DbRepo.CLUSTER_ID + " = ? GROUP BY "
+            + DbRepo.CLUSTER_ID + ";";
+
+    private static final String ARCHIVED_ROW = " FROM "
+            + ARCHIVED_TABLE + " archived WHERE archived."
+            + DbRepo.CLUSTER_ID + " = " + TABLE + "." + DbRepo.CLUSTER_ID + ")";
+
+    private static final String ADD_ARCHIVED = "UPDATE "
+            + TABLE + " SET "
+            + TOTAL_DURATION + " = " + TOTAL_DURATION + " + (SELECT archived."
+            + TOTAL_DURATION + ARCHIVED_ROW + ", "
+            + VISIT_COUNT + " = " + VISIT_COUNT + " + (SELECT archived."
+            + VISIT_COUNT + ARCHIVED_ROW + ", "
+            + LAST_SEEN + " = MAX(" + LAST_SEEN + ", (SELECT archived."
+            + LAST_SEEN + ARCHIVED_ROW + "), "
+            + PLACE_ID + " = IFNULL(" + PLACE_ID + ", (SELECT archived."
+            + PLACE_ID + ARCHIVED_ROW + ") WHERE "
+            + DbRepo.CLUSTER_ID + " IN (SELECT "
+            + DbRepo.CLUSTER_ID + " FROM "
+            + ARCHIVED_TABLE + ");";
+
+    private static final String COPY_ARCHIVED = "INSERT INTO "
+            + TABLE + " (" + COLUMNS + ") SELECT "
+            + COLUMNS + " FROM "
+            + ARCHIVED_TABLE + " WHERE "
+            + DbRepo.CLUSTER_ID + " NOT IN (SELECT "
+            + DbRepo.CLUSTER_ID + " FROM "
+            + TABLE + ");";
+
+    private static final String NEWEST_NAME = PLACE_ID + " = CASE WHEN ? >= "
+            + LAST_SEEN + " OR "
+            + PLACE_ID + " IS NULL THEN COALESCE(?, "
+            + PLACE_ID + ") ELSE "
+            + PLACE_ID + " END";
+
+    private static final String SET_NAME = "UPDATE "
+            + TABLE + " SET "
+            + NEWEST_NAME + " WHERE "
+            + DbRepo.CLUSTER_ID + " = (SELECT "
+            + DbRepo.CLUSTER_ID + " FROM "
+            + DbRepo.TABLE + " WHERE "
+            + DbRepo.ID + " = ? AND "
+            + IS_STAY + ");";
+
+    private static final String GET_VISITS = "SELECT "
+            + DbRepo.CLUSTER_ID + ", "
+            + Dictionary.NAME + ", "
+            + TOTAL_DURATION + ", "
+            + VISIT_COUNT + ", "
+            + LAST_SEEN + " FROM "
+            + TABLE + " JOIN "
+            + Dictionary.PLACES + " ON "
+            + Dictionary.PLACES + "." + DbRepo.ID + " = "
+            + PLACE_ID + " ORDER BY "
+            + Dictionary.NAME + ";";
+
+    private final SQLiteDatabase db;
+
+    private final Totals liveTotals;
+
+    private final Totals archivedTotals;
+
+    private SQLiteStatement setNameStatement;
+
+    private SQLiteStatement refreshStatement;
+
+    VisitAggregates(SQLiteDatabase db) {
+        this.db = db;
+        liveTotals = new Totals(db, TABLE);
+        archivedTotals = new Totals(db, ARCHIVED_TABLE);
+    }
+
+    /**
+     * Creates the aggregate tables, empty. They are filled by {@code recordArchived} and
+     * {@code rebuild}.
+     * */
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(getCreate(TABLE));
+        db.execSQL(getCreate(ARCHIVED_TABLE));
+    }
+
+    private static String getCreate(String table) {
+        return "CREATE TABLE IF NOT EXISTS "
+                + table + " ("
+                + DbRepo.CLUSTER_ID + " INTEGER PRIMARY KEY, "
+                + PLACE_ID + " INTEGER, "
+                + TOTAL_DURATION + " BIGINT NOT NULL, "
+                + VISIT_COUNT + " INTEGER NOT NULL, "
+                + LAST_SEEN + " BIGINT NOT NULL);";
+    }
+
+    /**
+     * Adds a newly saved movement to the aggregate of its place. Must be called inside the
+     * transaction that saved the movement.
+     * */
+
+    void record(Movement movement, long activityId, long clusterId, long placeId) {
+        if (activityId == ActivityTypes.STANDING_STILL && clusterId != 0) {
+            liveTotals.add(clusterId, placeId, movement.getDuration(), movement.getTimeStamp());
+        }
+    }
+
+    /**
+     * Adds a movement that is moving into the archive to the archived share of its place. The
+     * aggregate itself already includes it. Must be called inside the transaction that deletes
+     * the movement from the database.
+     * */
+
+    void recordArchived(long activityId, long clusterId, long placeId, long duration,
+                        long timestamp) {
+        if (activityId == ActivityTypes.STANDING_STILL && clusterId != 0) {
+            archivedTotals.add(clusterId, placeId, duration, timestamp);
+        }
+    }
+
+    /**
+     * Recomputes the aggregate of a new place from the movements in the database, after earlier
+     * stay points have been moved into it. Must be called inside a transaction.
+     * */
+
+    void refresh(long clusterId) {
+        if (refreshStatement == null) {
+            refreshStatement = db.compileStatement(REFRESH);
+        }
+        refreshStatement.bindLong(1, clusterId);
+        refreshStatement.executeInsert();
+    }
+
+    /**
+     * Names the place of a saved movement after the place name resolved for it, if it is the
+     * most recent stay there. Must be called inside the transaction that saved the place name.
+     * */
+
+    void name(Movement movement, long placeId) {
+        if (setNameStatement == null) {
+            setNameStatement = db.compileStatement(SET_NAME);
+        }
+        setNameStatement.bindLong(1, movement.getTimeStamp());
+        setNameStatement.bindLong(2, placeId);
+        setNameStatement.bindLong(3, movement.getId());
+        setNameStatement.executeUpdateDelete();
+    }
+
+    /**
+     * Refills the aggregate after movements have moved between places, from the movements in
+     * the database and the archived share of each place. Must be called inside a transaction.
+     * */
+
+    void rebuild() {
+        db.execSQL(CLEAR);
+        db.execSQL(BACKFILL);
+        db.execSQL(ADD_ARCHIVED);
+        db.execSQL(COPY_ARCHIVED);
+    }
+
+    /**
+     * Fetches the aggregate of every place visited, ordered by place name.
+     * */
+
+    List<Visit> getVisits() {
+        Cursor cursor = db.rawQuery(GET_VISITS, null);
+        List<Visit> visits = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            visits.add(getVisitFromCursor(cursor));
+        }
+        cursor.close();
+        return visits;
+    }
+
+    private Visit getVisitFromCursor(Cursor cursor) {
+        Visit visit = new Visit();
+        visit.setClusterId(cursor.getLong(0));
+        visit.setPlaceName(cursor.getString(1));
+        visit.setDuration(cursor.getLong(2));
+        visit.setVisitCount(cursor.getInt(3));
+        visit.setLastSeen(cursor.getLong(4));
+        return visit;
+    }
+
+    private static class Totals {
+
+        private final SQLiteDatabase db;
+
+        private final String table;
+
+        private SQLiteStatement updateStatement;
+
+        private SQLiteStatement insertStatement;
+
+        private Totals(SQLiteDatabase db, String table) {
+            this.db = db;
+            this.table = table;
+        }
+
+        private void add(long clusterId, long placeId, long duration, long timestamp) {
+            if (updateStatement == null) {
+                updateStatement = db.compileStatement("UPDATE "
+                        + table + " SET "
+                        + TOTAL_DURATION + " = " + TOTAL_DURATION + " + ?, "
+                        + VISIT_COUNT + " = " + VISIT_COUNT + " + 1, "
+                        + NEWEST_NAME + ", "
+                        + LAST_SEEN + " = MAX(" + LAST_SEEN + ", ?) WHERE "
+                        + DbRepo.CLUSTER_ID + " = ?;");
+                insertStatement = db.compileStatement("INSERT INTO "
+                        + table + " (" + COLUMNS + ") VALUES (?, ?, ?, 1, ?);");
+            }
+            updateStatement.bindLong(1, duration);
+            updateStatement.bindLong(2, timestamp);
+            bindId(updateStatement, 3, placeId);
+            updateStatement.bindLong(4, timestamp);
+            updateStatement.bindLong(5, clusterId);
+            if (updateStatement.executeUpdateDelete() == 0) {
+                insertStatement.bindLong(1, clusterId);
+                bindId(insertStatement, 2, placeId);
+                insertStatement.bindLong(3, duration);
+                insertStatement.bindLong(4, timestamp);
+                insertStatement.executeInsert();
+            }
+        }
+
+        private void bindId(SQLiteStatement statement, int index, long id) {
+            if (id == 0) {
+                statement.bindNull(index);
+            } else {
+                statement.bindLong(index, id);
+            }
+        }
+    }
+}
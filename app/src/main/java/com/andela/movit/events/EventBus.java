@@ -0,0 +1,120 @@
+/**
+ * This class provides a typed, in-process event bus for activity updates. Events are handed to
+ * subscribers as objects instead of being marshalled into intents. Location updates reach the UI
+ * through the {@code TrackingStateStream} instead. Each subscriber chooses the looper it is called
+ * on; subscribers on the publishing thread's looper are called directly, and the rest are reached
+ * through pooled {@code Message} objects.
+ * */
+
+package com.andela.movit.events;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+
+import com.andela.movit.location.IncomingStringCallback;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class EventBus {
+
+    private static final int ACTIVITY = 1;
+
+    private static EventBus instance;
+
+    private final List<Subscription> activitySubscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the process-wide bus, creating it on first use.
+     * */
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes a callback to detected activity names, delivered on the main looper.
+     * @param callback the callback to be invoked with every detected activity.
+     * */
+
+    public void subscribeActivity(IncomingStringCallback callback) {
+        subscribeActivity(callback, Looper.getMainLooper());
+    }
+
+    /**
+     * Subscribes a callback to detected activity names, delivered on the given looper.
+     * @param callback the callback to be invoked with every detected activity.
+     * @param looper the looper of the thread on which the callback will be invoked.
+     * */
+
+    public void subscribeActivity(IncomingStringCallback callback, Looper looper) {
+        activitySubscriptions.add(new Subscription(looper, callback));
+    }
+
+    /**
+     * Removes every subscription made with the given callback.
+     * @param callback the callback that was subscribed.
+     * */
+
+    public void unsubscribe(Object callback) {
+        removeCallback(activitySubscriptions, callback);
+    }
+
+    /**
+     * Publishes the name of a newly detected activity.
+     * */
+
+    public void publishActivity(String activityName) {
+        publish(activitySubscriptions, ACTIVITY, activityName);
+    }
+
+    private void publish(List<Subscription> subscriptions, int type, Object event) {
+        Looper currentLooper = Looper.myLooper();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.getLooper() == currentLooper) {
+                subscription.dispatch(type, event);
+            } else {
+                subscription.obtainMessage(type, event).sendToTarget();
+            }
+        }
+    }
+
+    private void removeCallback(List<Subscription> subscriptions, Object callback) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.callback == callback) {
+                subscription.isActive = false;
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    private static final class Subscription extends Handler {
+
+        private final Object callback;
+
+        private volatile boolean isActive = true;
+
+        public Subscription(Looper looper, Object callback) {
+            super(looper);
+            this.callback = callback;
+        }
+
+        @Override
+        public void handleMessage(Message msg) {
+            dispatch(msg.what, msg.obj);
+        }
+
+        private void dispatch(int type, Object event) {
+            if (!isActive) {
+                return;
+            }
+            if (type == ACTIVITY) {
+                ((IncomingStringCallback)callback).onStringArrive((String)event);
+            }
+        }
+    }
+}
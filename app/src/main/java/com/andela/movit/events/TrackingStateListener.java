@@ -0,0 +1,11 @@
+/**
+ * This interface defines an operation to be performed whenever the tracking state changes.
+ * */
+
+package com.andela.movit.events;
+
+import com.andela.movit.models.TrackingState;
+
+public interface TrackingStateListener {
+    void onStateChanged(TrackingState state);
+}
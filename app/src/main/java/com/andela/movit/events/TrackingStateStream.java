@@ -0,0 +1,127 @@
+/**
+ * This class provides an observable stream of {@code TrackingState} snapshots for the tracker
+ * screen. The stream always holds the latest snapshot and replays it to every new subscriber, so
+ * a screen that resumes can render at once instead of waiting for the next update. Updates are
+ * conflated: however many arrive between two frames, subscribers are called once per frame, on
+ * the main thread, with the latest snapshot only.
+ * */
+
+package com.andela.movit.events;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.andela.movit.models.Movement;
+import com.andela.movit.models.TrackingState;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TrackingStateStream {
+
+    private static TrackingStateStream instance;
+
+    private final List<TrackingStateListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private TrackingState state = new TrackingState(null, "Unknown", 0, false);
+
+    private boolean isFramePending;
+
+    /**
+     * Returns the process-wide stream, creating it on first use.
+     * */
+
+    public static synchronized TrackingStateStream getInstance() {
+        if (instance == null) {
+            instance = new TrackingStateStream();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the latest snapshot.
+     * */
+
+    public synchronized TrackingState getState() {
+        return state;
+    }
+
+    /**
+     * Subscribes a listener and immediately replays the latest snapshot to it. Must be called on
+     * the main thread.
+     * @param listener the listener to be invoked with every new snapshot.
+     * */
+
+    public void subscribe(TrackingStateListener listener) {
+        listeners.add(listener);
+        listener.onStateChanged(getState());
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener the listener that was subscribed.
+     * */
+
+    public void unsubscribe(TrackingStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publishes a new current location.
+     * */
+
+    public synchronized void publishMovement(Movement movement) {
+        update(state.withMovement(movement));
+    }
+
+    /**
+     * Publishes the name of the activity that is now being tracked.
+     * */
+
+    public synchronized void publishActivity(String activityName) {
+        update(state.withActivityName(activityName));
+    }
+
+    /**
+     * Publishes the start of a new activity session, or the end of tracking.
+     * @param sessionStart the {@code SystemClock.elapsedRealtime} time at which the session
+     * started.
+     * @param isTracking whether tracking is on.
+     * */
+
+    public synchronized void publishSession(long sessionStart, boolean isTracking) {
+        update(state.withSession(sessionStart, isTracking));
+    }
+
+    private void update(TrackingState newState) {
+        state = newState;
+        if (!isFramePending) {
+            isFramePending = true;
+            mainHandler.post(scheduleFrame);
+        }
+    }
+
+    private final Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    };
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            TrackingState latestState;
+            synchronized (TrackingStateStream.this) {
+                isFramePending = false;
+                latestState = state;
+            }
+            for (TrackingStateListener listener : listeners) {
+                listener.onStateChanged(latestState);
+            }
+        }
+    };
+}
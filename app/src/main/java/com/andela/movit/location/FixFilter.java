@@ -0,0 +1,146 @@
+/**
+ * This class filters the raw location fixes delivered by location services before they are
+ * turned into movements. Fixes that are too inaccurate are dropped, the rest are smoothed by a
+ * simple Kalman filter in which each fix is weighed by its reported accuracy, and a fix that
+ * would mean travelling faster than any tracked activity allows is rejected as an outlier. A fix
+ * is only reported as a move once the smoothed position has moved far enough from the last
+ * reported position, so the jitter of a phone lying still does not produce new movements.
+ * */
+
+package com.andela.movit.location;
+
+public class FixFilter {
+
+    /**
+     * The result of a fix that was dropped as inaccurate or implausible.
+     * */
+
+    public static final int REJECTED = 0;
+
+    /**
+     * The result of a fix that was accepted, but did not move the smoothed position far enough
+     * to be reported.
+     * */
+
+    public static final int UNCHANGED = 1;
+
+    /**
+     * The result of a fix that moved the smoothed position to a new location.
+     * */
+
+    public static final int MOVED = 2;
+
+    /**
+     * The largest accuracy radius (in metres) of a fix that is accepted.
+     * */
+
+    public static final float MAX_ACCURACY = 100;
+
+    private static final double PROCESS_NOISE = 3;
+
+    private static final double MAX_SPEED = 70;
+
+    private static final double MIN_DISPLACEMENT = 10;
+
+    private static final int MAX_REJECTIONS = 3;
+
+    private double latitude;
+
+    private double longitude;
+
+    private double variance = -1;
+
+    private long lastTime;
+
+    private double reportedLatitude;
+
+    private double reportedLongitude;
+
+    private int rejectionCount;
+
+    /**
+     * Forgets the smoothed position, so that the next fix is accepted as it is.
+     * */
+
+    public void reset() {
+        variance = -1;
+        rejectionCount = 0;
+    }
+
+    /**
+     * Filters a fix.
+     * @param latitude the latitude of the fix.
+     * @param longitude the longitude of the fix.
+     * @param accuracy the accuracy radius of the fix, in metres.
+     * @param time the time of the fix (in milliseconds, from a monotonic clock).
+     * @return {@code REJECTED}, {@code UNCHANGED} or {@code MOVED}.
+     * */
+
+    public int filter(double latitude, double longitude, float accuracy, long time) {
+        if (accuracy > MAX_ACCURACY) {
+            return REJECTED;
+        }
+        double accuracyVariance = Math.max(accuracy, 1) * Math.max(accuracy, 1);
+        if (variance < 0) {
+            start(latitude, longitude, accuracyVariance, time);
+            return MOVED;
+        }
+        double seconds = Math.max(0, time - lastTime) / 1000.0;
+        if (isOutlier(latitude, longitude, accuracy, seconds)) {
+            if (++rejectionCount < MAX_REJECTIONS) {
+                return REJECTED;
+            }
+            start(latitude, longitude, accuracyVariance, time);
+            return MOVED;
+        }
+        rejectionCount = 0;
+        variance += seconds * PROCESS_NOISE * PROCESS_NOISE;
+        double gain = variance / (variance + accuracyVariance);
+        this.latitude += gain * (latitude - this.latitude);
+        this.longitude += gain * (longitude - this.longitude);
+        variance *= 1 - gain;
+        lastTime = time;
+        if (GeoMath.distance(this.latitude, this.longitude, reportedLatitude, reportedLongitude)
+                < MIN_DISPLACEMENT) {
+            return UNCHANGED;
+        }
+        report();
+        return MOVED;
+    }
+
+    /**
+     * Returns the latitude of the smoothed position.
+     * */
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Returns the longitude of the smoothed position.
+     * */
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    private void start(double latitude, double longitude, double accuracyVariance, long time) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        variance = accuracyVariance;
+        lastTime = time;
+        rejectionCount = 0;
+        report();
+    }
+
+    private boolean isOutlier(double latitude, double longitude, float accuracy, double seconds) {
+        double distance = GeoMath.distance(this.latitude, this.longitude, latitude, longitude);
+        double jump = distance - accuracy - Math.sqrt(variance);
+        return jump > MAX_SPEED * Math.max(seconds, 1);
+    }
+
+    private void report() {
+        reportedLatitude = latitude;
+        reportedLongitude = longitude;
+    }
+}
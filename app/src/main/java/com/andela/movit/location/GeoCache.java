@@ -0,0 +1,227 @@
+/**
+ * This class provides a persistent, bounded cache of place names, keyed by the geohash cell of
+ * the coordinates they were resolved for. Entries are kept in memory in least-recently-used order
+ * and mirrored to a small database so that they survive restarts. Entries stored while the
+ * persisted ones are still loading count as more recently used than any of them. Entries older
+ * than the time to live are treated as missing so that place names are eventually refreshed from
+ * the network.
+ * */
+
+package com.andela.movit.location;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public class GeoCache extends SQLiteOpenHelper {
+
+    /**
+     * The geohash precision used to quantize coordinates into cache cells (roughly 38m by 19m).
+     * */
+
+    public static final int CELL_PRECISION = 8;
+
+    private static final int CAPACITY = 512;
+
+    private static final long TIME_TO_LIVE = 30L * 24 * 60 * 60 * 1000;
+
+    private static final long ACCESS_WRITE_INTERVAL = 60L * 60 * 1000;
+
+    private static final String DATABASE = "geocache.db";
+
+    private static final int VERSION = 1;
+
+    private static final String TABLE = "places";
+
+    private static final String CELL = "cell";
+
+    private static final String ADDRESS = "address";
+
+    private static final String STORED_AT = "stored_at";
+
+    private static final String ACCESSED_AT = "accessed_at";
+
+    private static final String CREATE = "CREATE TABLE "
+            + TABLE + " ("
+            + CELL + " TEXT PRIMARY KEY, "
+            + ADDRESS + " TEXT, "
+            + STORED_AT + " BIGINT, "
+            + ACCESSED_AT + " BIGINT);";
+
+    private static final String GET_ALL = "SELECT "
+            + CELL + ", "
+            + ADDRESS + ", "
+            + STORED_AT + ", "
+            + ACCESSED_AT + " FROM "
+            + TABLE + " ORDER BY "
+            + ACCESSED_AT + " ASC;";
+
+    private static GeoCache instance;
+
+    private final Map<String, Entry> entries;
+
+    private final Executor diskExecutor;
+
+    private GeoCache(Context context) {
+        super(context, DATABASE, null, VERSION);
+        entries = new LinkedHashMap<>(CAPACITY, 0.75f, true);
+        diskExecutor = Executors.newSingleThreadExecutor();
+        diskExecutor.execute(getLoadTask());
+    }
+
+    /**
+     * Returns the process-wide cache, creating it on first use.
+     * @param context any context; the application context is retained.
+     * */
+
+    public static synchronized GeoCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new GeoCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the geohash cell that the given coordinates fall into.
+     * */
+
+    public static String getCell(double latitude, double longitude) {
+        return GeoHash.encode(latitude, longitude, CELL_PRECISION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(CREATE);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    /**
+     * Looks up the place name cached for a cell. Lookups made before the persisted entries have
+     * finished loading are reported as misses.
+     * @param cell the geohash cell of the place.
+     * @return the cached place name, or null if there is no fresh entry for the cell.
+     * */
+
+    public String get(String cell) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(cell);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.storedAt > TIME_TO_LIVE) {
+                entries.remove(cell);
+                deleteFromDisk(cell);
+                return null;
+            }
+            if (now - entry.accessedAt > ACCESS_WRITE_INTERVAL) {
+                entry.accessedAt = now;
+                writeToDisk(cell, entry);
+            }
+        }
+        return entry.address;
+    }
+
+    /**
+     * Stores the place name resolved for a cell, evicting the least recently used entry if the
+     * cache is full.
+     * @param cell the geohash cell of the place.
+     * @param address the name of the place.
+     * */
+
+    public void put(String cell, String address) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(address, now, now);
+        synchronized (entries) {
+            entries.put(cell, entry);
+            trimToCapacity();
+        }
+        writeToDisk(cell, entry);
+    }
+
+    private void trimToCapacity() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > CAPACITY && iterator.hasNext()) {
+            String eldest = iterator.next().getKey();
+            iterator.remove();
+            deleteFromDisk(eldest);
+        }
+    }
+
+    private Runnable getLoadTask() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                Cursor cursor = getWritableDatabase().rawQuery(GET_ALL, null);
+                synchronized (entries) {
+                    Map<String, Entry> sessionEntries = new LinkedHashMap<>(entries);
+                    entries.clear();
+                    while (cursor.moveToNext()) {
+                        String cell = cursor.getString(0);
+                        if (!sessionEntries.containsKey(cell)) {
+                            entries.put(cell, getEntryFromCursor(cursor));
+                        }
+                    }
+                    entries.putAll(sessionEntries);
+                    trimToCapacity();
+                }
+                cursor.close();
+            }
+        };
+    }
+
+    private Entry getEntryFromCursor(Cursor cursor) {
+        return new Entry(cursor.getString(1), cursor.getLong(2), cursor.getLong(3));
+    }
+
+    private void writeToDisk(final String cell, Entry entry) {
+        final ContentValues values = new ContentValues();
+        values.put(CELL, cell);
+        values.put(ADDRESS, entry.address);
+        values.put(STORED_AT, entry.storedAt);
+        values.put(ACCESSED_AT, entry.accessedAt);
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getWritableDatabase()
+                        .insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        });
+    }
+
+    private void deleteFromDisk(final String cell) {
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getWritableDatabase().delete(TABLE, CELL + " = ?", new String[] {cell});
+            }
+        });
+    }
+
+    private static class Entry {
+
+        private final String address;
+
+        private final long storedAt;
+
+        private long accessedAt;
+
+        private Entry(String address, long storedAt, long accessedAt) {
+            this.address = address;
+            this.storedAt = storedAt;
+            this.accessedAt = accessedAt;
+        }
+    }
+}
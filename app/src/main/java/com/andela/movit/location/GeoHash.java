@@ -0,0 +1,54 @@
+/**
+ * This class provides an operation for quantizing latitude and longitude coordinates into
+ * geohash cells. Coordinates that fall within the same cell share the same geohash string, which
+ * makes the geohash a convenient key for looking up data about nearby places.
+ * */
+
+package com.andela.movit.location;
+
+public class GeoHash {
+
+    private static final String BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /**
+     * Encodes a pair of coordinates into a geohash string.
+     * @param latitude the latitude of the place.
+     * @param longitude the longitude of the place.
+     * @param precision the number of characters in the geohash. Each extra character shrinks the
+     * cell, e.g. a precision of 8 gives cells of roughly 38m by 19m.
+     * @return the geohash of the cell containing the coordinates.
+     * */
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double[] latRange = {-90.0, 90.0};
+        double[] lngRange = {-180.0, 180.0};
+        StringBuilder hash = new StringBuilder(precision);
+        boolean isEvenBit = true;
+        int bit = 0;
+        int charIndex = 0;
+        while (hash.length() < precision) {
+            if (isEvenBit) {
+                charIndex = (charIndex << 1) | bisect(lngRange, longitude);
+            } else {
+                charIndex = (charIndex << 1) | bisect(latRange, latitude);
+            }
+            isEvenBit = !isEvenBit;
+            if (++bit == 5) {
+                hash.append(BASE_32.charAt(charIndex));
+                bit = 0;
+                charIndex = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    private static int bisect(double[] range, double value) {
+        double mid = (range[0] + range[1]) / 2;
+        if (value >= mid) {
+            range[0] = mid;
+            return 1;
+        }
+        range[1] = mid;
+        return 0;
+    }
+}
@@ -1,13 +1,16 @@
 /**
  * This class provides an operation for obtaining the name of a place, given the latitude and
  * longitude coordinates of the place. Since the operation is asynchronous, an operation is
- * provided for setting a callback to be invoked when the place name is determined.
+ * provided for setting a callback to be invoked when the place name is determined. Place names
+ * are served from a {@code GeoCache} when possible, and only fetched from the network on a miss.
+ * Concurrent misses for the same cell share a single network request.
  * */
 
 package com.andela.movit.location;
 
 import android.content.Context;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.koushikdutta.async.future.FutureCallback;
 import com.koushikdutta.ion.Ion;
@@ -17,11 +20,17 @@ public class GeoHelper {
 
     private IncomingStringCallback callback;
 
+    private GeoCache cache;
+
+    private LookupCoalescer lookups;
+
     private final String URL_BASE
             = "http://maps.googleapis.com/maps/api/geocode/json?sensor=true&latlng=";
 
     public GeoHelper(Context context) {
         this.context = context;
+        this.cache = GeoCache.getInstance(context);
+        this.lookups = LookupCoalescer.getInstance();
     }
 
     /**
@@ -40,30 +49,49 @@ public class GeoHelper {
      * */
 
     public void getPlaceName(double latitude, double longitude) {
+        String cell = GeoCache.getCell(latitude, longitude);
+        String cachedAddress = cache.get(cell);
+        if (cachedAddress != null) {
+            callback.onStringArrive(cachedAddress);
+            return;
+        }
+        if (lookups.join(cell, callback)) {
+            fetchFromRestApi(getUrl(latitude, longitude), cell);
+        }
+    }
+
+    private String getUrl(double latitude, double longitude) {
         String latLng = Double.toString(latitude) + "," + Double.toString(longitude);
-        String url = URL_BASE + latLng;
-        fetchFromRestApi(url);
+        return URL_BASE + latLng;
     }
 
-    private void fetchFromRestApi(String url) {
+    private void fetchFromRestApi(String url, String cell) {
         Ion.with(context)
                 .load(url)
                 .asJsonObject()
-                .setCallback(getCallback());
+                .setCallback(getCallback(cell));
     }
 
-    private FutureCallback<JsonObject> getCallback() {
+    private FutureCallback<JsonObject> getCallback(final String cell) {
         return new FutureCallback<JsonObject>() {
             @Override
             public void onCompleted(Exception e, JsonObject result) {
-                if (e == null) {
+                if (e == null && hasAddress(result)) {
                     String formattedAddress = extractAddress(result);
-                    callback.onStringArrive(formattedAddress);
+                    cache.put(cell, formattedAddress);
+                    lookups.complete(cell, formattedAddress);
+                } else {
+                    lookups.fail(cell);
                 }
             }
         };
     }
 
+    private boolean hasAddress(JsonObject jsonObject) {
+        JsonArray results = jsonObject.getAsJsonArray("results");
+        return results != null && results.size() > 0;
+    }
+
     private String extractAddress(JsonObject jsonObject) {
         return jsonObject
                 .getAsJsonArray("results")
@@ -0,0 +1,72 @@
+/**
+ * This class provides operations for measuring distances between coordinates and for converting
+ * distances on the ground into degrees of latitude and longitude. The earth is treated as a
+ * sphere, which is accurate to well within the error of a phone's location fix.
+ * */
+
+package com.andela.movit.location;
+
+public class GeoMath {
+
+    public static final double EARTH_RADIUS = 6371008.8;
+
+    private static final double METRES_PER_DEGREE = EARTH_RADIUS * Math.PI / 180;
+
+    /**
+     * Returns the great-circle distance between two pairs of coordinates.
+     * @return the distance in metres.
+     * */
+
+    public static double distance(double latitude1, double longitude1,
+                                  double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLng = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Returns the number of degrees of latitude that span the given distance.
+     * @param metres the distance in metres.
+     * */
+
+    public static double metresToLatitude(double metres) {
+        return metres / METRES_PER_DEGREE;
+    }
+
+    /**
+     * Returns the distance spanned by the given number of degrees of latitude.
+     * @return the distance in metres.
+     * */
+
+    public static double latitudeToMetres(double degrees) {
+        return degrees * METRES_PER_DEGREE;
+    }
+
+    /**
+     * Returns the distance spanned by the given number of degrees of longitude at the given
+     * latitude.
+     * @return the distance in metres.
+     * */
+
+    public static double longitudeToMetres(double degrees, double latitude) {
+        return degrees * METRES_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Returns the number of degrees of longitude that span the given distance at the given
+     * latitude.
+     * @param metres the distance in metres.
+     * @param latitude the latitude at which the distance is measured.
+     * */
+
+    public static double metresToLongitude(double metres, double latitude) {
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        if (cosLat < 1e-6) {
+            return 360;
+        }
+        return Math.min(360, metres / (METRES_PER_DEGREE * cosLat));
+    }
+}
@@ -2,7 +2,12 @@
  * This class encapsulates all components concerned with location detection. It provides the
  * callbacks required by the Google API client, a means of starting and stopping location
  * detection, and a way to set a callback that will be invoked whenever a new location is
- * detected.
+ * detected. The raw fixes received between connecting and disconnecting are recorded as a route
+ * by a {@code TrackRecorder}. Fixes are passed through a {@code FixFilter} first; inaccurate
+ * and implausible fixes are dropped, and only fixes that move the smoothed position become
+ * movements. A new movement is delivered straight away with its coordinates only; its place
+ * name is looked up through the {@code PlaceNameQueue}, and the movement is delivered again,
+ * named, if it is still the latest one when the name arrives.
  * */
 
 package com.andela.movit.location;
@@ -34,8 +39,20 @@ public class LocationHelper implements GoogleApiClient.ConnectionCallbacks,
 
     private LocationCallback locationCallback;
 
+    private SamplingPolicy samplingPolicy = SamplingPolicy.DEFAULT;
+
+    private TrackRecorder trackRecorder;
+
+    private FixFilter fixFilter = new FixFilter();
+
+    private PlaceNameQueue placeNameQueue;
+
+    private Movement latestMovement;
+
     public LocationHelper(Context context) {
         this.context = context;
+        trackRecorder = new TrackRecorder(context);
+        placeNameQueue = PlaceNameQueue.getInstance(context);
     }
 
     /**
@@ -48,31 +65,48 @@ public class LocationHelper implements GoogleApiClient.ConnectionCallbacks,
     }
 
     /**
-     * Connects to location services
+     * Retunes location sampling for the activity that is currently being performed. Updates are
+     * re-requested only if the activity calls for a different sampling policy.
+     * @param activityName the name of the current activity.
+     * */
+
+    public void setActivity(String activityName) {
+        SamplingPolicy policy = SamplingPolicy.forActivity(activityName);
+        if (policy != samplingPolicy) {
+            samplingPolicy = policy;
+            if (apiClient != null && apiClient.isConnected()) {
+                initializeLocationRequest();
+            }
+        }
+    }
+
+    /**
+     * Connects to location services, and starts recording a new route.
      * */
 
     public void connect() {
         if (apiClient == null) {
             initializeApiClient();
         }
+        trackRecorder.startSession();
+        fixFilter.reset();
         apiClient.connect();
     }
 
     /**
-     * Disconnect from location services.
+     * Disconnect from location services, and ends the route being recorded.
      * */
 
     public void disconnect() {
         if (apiClient.isConnected()) {
             stopLocationUpdates();
         }
+        trackRecorder.stopSession();
+        latestMovement = null;
     }
 
     private void initializeLocationRequest() {
-        locationRequest = LocationRequest.create();
-        locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-        locationRequest.setInterval(1000);
-        locationRequest.setSmallestDisplacement(5f);
+        locationRequest = samplingPolicy.toLocationRequest();
         startLocationUpdates();
     }
 
@@ -118,24 +152,38 @@ public class LocationHelper implements GoogleApiClient.ConnectionCallbacks,
 
     @Override
     public void onLocationChanged(Location location) {
-        Movement movement = new Movement();
-        movement.setLatitude(location.getLatitude());
-        movement.setLongitude(location.getLongitude());
-        getPlaceName(movement);
+        float accuracy = location.hasAccuracy() ? location.getAccuracy() : FixFilter.MAX_ACCURACY;
+        long time = location.getElapsedRealtimeNanos() / 1000000;
+        int result = fixFilter.filter(location.getLatitude(), location.getLongitude(), accuracy,
+                time);
+        if (result == FixFilter.REJECTED) {
+            return;
+        }
+        trackRecorder.addFix(location);
+        if (result == FixFilter.MOVED) {
+            Movement movement = new Movement();
+            movement.setLatitude(fixFilter.getLatitude());
+            movement.setLongitude(fixFilter.getLongitude());
+            publishMovement(movement);
+        }
     }
 
-    private void getPlaceName(Movement movement) {
-        GeoHelper helper = new GeoHelper(context);
-        helper.setCallback(getPlaceNameCallback(movement));
-        helper.getPlaceName(movement.getLatitude(), movement.getLongitude());
+    private void publishMovement(Movement movement) {
+        latestMovement = movement;
+        locationCallback.onLocationDetected(movement);
+        placeNameQueue.resolve(movement, getPlaceNameCallback(movement));
     }
 
     private IncomingStringCallback getPlaceNameCallback(final Movement movement) {
         return new IncomingStringCallback() {
             @Override
             public void onStringArrive(String placeName) {
-                movement.setPlaceName(placeName);
-                locationCallback.onLocationDetected(movement);
+                if (placeName != null && movement == latestMovement) {
+                    Movement namedMovement = new Movement(movement);
+                    namedMovement.setPlaceName(placeName);
+                    latestMovement = namedMovement;
+                    locationCallback.onLocationDetected(namedMovement);
+                }
             }
         };
     }
@@ -0,0 +1,79 @@
+/**
+ * This class coalesces concurrent place name lookups for the same geohash cell. The first caller
+ * to join a cell is told to perform the lookup; callers that join while that lookup is in flight
+ * are queued, and every queued callback is completed from the single result. When a lookup
+ * fails, every queued callback is completed with a null place name.
+ * */
+
+package com.andela.movit.location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LookupCoalescer {
+
+    private static LookupCoalescer instance;
+
+    private final Map<String, List<IncomingStringCallback>> pendingLookups = new HashMap<>();
+
+    /**
+     * Returns the process-wide coalescer, creating it on first use.
+     * */
+
+    public static synchronized LookupCoalescer getInstance() {
+        if (instance == null) {
+            instance = new LookupCoalescer();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a callback that is waiting for the place name of a cell.
+     * @param cell the geohash cell being looked up.
+     * @param callback the callback to be invoked once the place name is known.
+     * @return true if no lookup for the cell was in flight, in which case the caller must start
+     * one and eventually call {@code complete} or {@code fail}.
+     * */
+
+    public synchronized boolean join(String cell, IncomingStringCallback callback) {
+        List<IncomingStringCallback> waiting = pendingLookups.get(cell);
+        boolean isFirst = waiting == null;
+        if (isFirst) {
+            waiting = new ArrayList<>();
+            pendingLookups.put(cell, waiting);
+        }
+        waiting.add(callback);
+        return isFirst;
+    }
+
+    /**
+     * Completes every callback waiting on a cell with the resolved place name.
+     * @param cell the geohash cell that was looked up.
+     * @param placeName the name of the place.
+     * */
+
+    public void complete(String cell, String placeName) {
+        List<IncomingStringCallback> waiting = remove(cell);
+        if (waiting != null) {
+            for (IncomingStringCallback callback : waiting) {
+                callback.onStringArrive(placeName);
+            }
+        }
+    }
+
+    /**
+     * Completes every callback waiting on a cell with a null place name after its lookup failed,
+     * so that the next request for the cell starts a fresh lookup.
+     * @param cell the geohash cell that was looked up.
+     * */
+
+    public void fail(String cell) {
+        complete(cell, null);
+    }
+
+    private synchronized List<IncomingStringCallback> remove(String cell) {
+        return pendingLookups.remove(cell);
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * This class resolves place names in the background, so that new locations can be published as
+ * soon as they are detected instead of waiting on the network. Live lookups are served one at a
+ * time, and a location that arrives while a lookup is in flight replaces any location still
+ * waiting, so only the newest location is looked up next. Movements that were saved before their
+ * place name was known are backfilled in batches, and only while the device is on an unmetered
+ * connection. A movement whose place name cannot be found is set aside for a while, so that it
+ * does not stall the backfill. Its database work runs on {@code DbExecutor} at background
+ * priority, behind the reads the user is waiting on. All methods, and all callbacks, run on the
+ * main thread.
+ * */
+
+package com.andela.movit.location;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.andela.movit.data.DbCallback;
+import com.andela.movit.data.DbExecutor;
+import com.andela.movit.data.DbOperation;
+import com.andela.movit.data.DbRepo;
+import com.andela.movit.data.DbResult;
+import com.andela.movit.models.Movement;
+
+import java.util.List;
+
+public class PlaceNameQueue {
+
+    private static final int BATCH_SIZE = 20;
+
+    private static PlaceNameQueue instance;
+
+    private final Context context;
+
+    private final DbRepo repo;
+
+    private Movement pendingMovement;
+
+    private IncomingStringCallback pendingCallback;
+
+    private boolean isResolving;
+
+    private boolean isBackfilling;
+
+    private PlaceNameQueue(Context context) {
+        this.context = context;
+        repo = DbRepo.getInstance(context);
+    }
+
+    /**
+     * Returns the process-wide queue, creating it on first use.
+     * @param context any context; the application context is retained.
+     * */
+
+    public static synchronized PlaceNameQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new PlaceNameQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a live lookup of the place name of a movement. The movement itself is not modified.
+     * @param movement the movement whose place name is needed.
+     * @param callback the callback to be invoked with the place name, or with null if the lookup
+     * failed. It is not invoked if the lookup is superseded by a newer one.
+     * */
+
+    public void resolve(Movement movement, IncomingStringCallback callback) {
+        pendingMovement = movement;
+        pendingCallback = callback;
+        if (!isResolving) {
+            resolveNext();
+        }
+    }
+
+    /**
+     * Starts backfilling the place names of saved movements, unless a backfill is already
+     * running or the connection is metered or down.
+     * */
+
+    public void backfill() {
+        if (isBackfilling || !isConnectionUnmetered()) {
+            return;
+        }
+        isBackfilling = true;
+        fetchBatch();
+    }
+
+    private void resolveNext() {
+        final Movement movement = pendingMovement;
+        final IncomingStringCallback callback = pendingCallback;
+        pendingMovement = null;
+        pendingCallback = null;
+        isResolving = movement != null;
+        if (movement == null) {
+            return;
+        }
+        getPlaceName(movement, new IncomingStringCallback() {
+            @Override
+            public void onStringArrive(String placeName) {
+                callback.onStringArrive(placeName);
+                if (placeName != null) {
+                    backfill();
+                }
+                resolveNext();
+            }
+        });
+    }
+
+    private void fetchBatch() {
+        DbOperation operation = new DbOperation() {
+            @Override
+            public DbResult execute() {
+                return new DbResult(repo.getMovementsWithoutPlace(BATCH_SIZE), null);
+            }
+        };
+        DbExecutor.getInstance().submit(operation, new DbCallback() {
+            @Override
+            public void onOperationSuccess(Object result) {
+                resolveBatch((List<Movement>)result);
+            }
+
+            @Override
+            public void onOperationFail(String errorMessage) {
+                resolveBatch(null);
+            }
+        }, DbExecutor.PRIORITY_BACKGROUND);
+    }
+
+    private void resolveBatch(final List<Movement> movements) {
+        if (movements == null || movements.isEmpty() || !isConnectionUnmetered()) {
+            isBackfilling = false;
+            return;
+        }
+        final int[] remaining = {movements.size()};
+        for (final Movement movement : movements) {
+            getPlaceName(movement, new IncomingStringCallback() {
+                @Override
+                public void onStringArrive(String placeName) {
+                    movement.setPlaceName(placeName);
+                    if (--remaining[0] == 0) {
+                        saveBatch(movements);
+                    }
+                }
+            });
+        }
+    }
+
+    private void saveBatch(final List<Movement> movements) {
+        DbOperation operation = new DbOperation() {
+            @Override
+            public DbResult execute() {
+                return new DbResult(repo.setPlaceNames(movements), null);
+            }
+        };
+        DbExecutor.getInstance().submit(operation, new DbCallback() {
+            @Override
+            public void onOperationSuccess(Object result) {
+                isBackfilling = false;
+                backfill();
+            }
+
+            @Override
+            public void onOperationFail(String errorMessage) {
+                isBackfilling = false;
+            }
+        }, DbExecutor.PRIORITY_BACKGROUND);
+    }
+
+    private void getPlaceName(Movement movement, IncomingStringCallback callback) {
+        GeoHelper helper = new GeoHelper(context);
+        helper.setCallback(callback);
+        helper.getPlaceName(movement.getLatitude(), movement.getLongitude());
+    }
+
+    private boolean isConnectionUnmetered() {
+        ConnectivityManager manager =
+                (ConnectivityManager)context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo networkInfo = manager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected()
+                && !manager.isActiveNetworkMetered();
+    }
+}
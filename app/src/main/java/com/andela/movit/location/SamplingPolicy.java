@@ -0,0 +1,71 @@
+/**
+ * This enum defines how often, and how accurately, location updates are requested for each kind
+ * of activity. A phone that is standing still only needs occasional coarse fixes, while walking
+ * and running need tighter sampling, and travelling is sampled by distance covered.
+ * */
+
+package com.andela.movit.location;
+
+import com.google.android.gms.location.LocationRequest;
+
+public enum SamplingPolicy {
+    STILL(LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY, 60000, 30000, 25f),
+    WALKING(LocationRequest.PRIORITY_HIGH_ACCURACY, 10000, 5000, 10f),
+    RUNNING(LocationRequest.PRIORITY_HIGH_ACCURACY, 5000, 3000, 10f),
+    CYCLING(LocationRequest.PRIORITY_HIGH_ACCURACY, 5000, 3000, 20f),
+    TRAVELLING(LocationRequest.PRIORITY_HIGH_ACCURACY, 10000, 5000, 100f),
+    DEFAULT(LocationRequest.PRIORITY_HIGH_ACCURACY, 1000, 1000, 5f);
+
+    private final int priority;
+
+    private final long interval;
+
+    private final long fastestInterval;
+
+    private final float smallestDisplacement;
+
+    SamplingPolicy(int priority, long interval, long fastestInterval, float smallestDisplacement) {
+        this.priority = priority;
+        this.interval = interval;
+        this.fastestInterval = fastestInterval;
+        this.smallestDisplacement = smallestDisplacement;
+    }
+
+    /**
+     * Returns the policy to use while the given activity is being performed.
+     * @param activityName the name of the activity, as produced by
+     * {@code FrameworkUtils.getActivityName}.
+     * */
+
+    public static SamplingPolicy forActivity(String activityName) {
+        if (activityName == null) {
+            return DEFAULT;
+        }
+        switch (activityName) {
+            case "Standing Still":
+                return STILL;
+            case "Walking":
+                return WALKING;
+            case "Running":
+                return RUNNING;
+            case "Cycling":
+                return CYCLING;
+            case "Travelling":
+                return TRAVELLING;
+            default:
+                return DEFAULT;
+        }
+    }
+
+    /**
+     * Builds a location request that follows this policy.
+     * */
+
+    public LocationRequest toLocationRequest() {
+        return LocationRequest.create()
+                .setPriority(priority)
+                .setInterval(interval)
+                .setFastestInterval(fastestInterval)
+                .setSmallestDisplacement(smallestDisplacement);
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * This class groups coordinates into places with a DBSCAN-style clustering. Stay points (places
+ * where the user was standing still) are clustered: a stay point with enough neighbours within
+ * the clustering radius is a core point, and clusters grow from core points to every stay point
+ * they reach. Stay points that reach no core point are noise and belong to no place, so a place
+ * always has at least {@code MIN_POINTS} stay points. Other points do not create places; they
+ * join the cluster of the nearest stay point within the radius, if any. Neighbours are found through a hash grid with cells as wide as the
+ * radius, so each point only looks at the nine cells around it and large histories cluster in
+ * roughly linear time.
+ * */
+
+package com.andela.movit.location;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class StayPointClusterer {
+
+    public static final double RADIUS = 50;
+
+    public static final int MIN_POINTS = 3;
+
+    public static final int NO_CLUSTER = -1;
+
+    private static final int UNVISITED = -2;
+
+    private static final int NOISE = -3;
+
+    private static final double MAX_LATITUDE = 85;
+
+    private final double[] latitudes;
+
+    private final double[] longitudes;
+
+    private final boolean[] isStay;
+
+    private final double cellHeight;
+
+    private final double cellWidth;
+
+    private final Map<Long, IntList> grid = new HashMap<>();
+
+    private final int[] labels;
+
+    private int clusterCount;
+
+    /**
+     * Constructs a {@code StayPointClusterer} over a set of points.
+     * @param latitudes the latitudes of the points.
+     * @param longitudes the longitudes of the points.
+     * @param isStay whether each point is a stay point.
+     * */
+
+    public StayPointClusterer(double[] latitudes, double[] longitudes, boolean[] isStay) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.isStay = isStay;
+        this.labels = new int[latitudes.length];
+        cellHeight = GeoMath.metresToLatitude(RADIUS);
+        cellWidth = GeoMath.metresToLongitude(RADIUS, getMaxLatitude());
+    }
+
+    /**
+     * Clusters the points.
+     * @return the cluster of each point, numbered from 0, or {@code NO_CLUSTER}.
+     * */
+
+    public int[] cluster() {
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = UNVISITED;
+            if (isStay[i]) {
+                getCell(getCellKey(latitudes[i], longitudes[i])).add(i);
+            }
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (isStay[i] && labels[i] == UNVISITED) {
+                if (getNeighbours(i).size() < MIN_POINTS) {
+                    labels[i] = NOISE;
+                } else {
+                    expandCluster(i, clusterCount++);
+                }
+            }
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == NOISE) {
+                labels[i] = NO_CLUSTER;
+            }
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (!isStay[i]) {
+                int nearest = findNearestStayPoint(latitudes[i], longitudes[i]);
+                labels[i] = nearest == -1 ? NO_CLUSTER : labels[nearest];
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Returns the number of clusters found by the last call to {@code cluster}.
+     * */
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    private void expandCluster(int seed, int cluster) {
+        labels[seed] = cluster;
+        IntList queue = new IntList();
+        queue.add(seed);
+        for (int head = 0; head < queue.size(); head++) {
+            IntList neighbours = getNeighbours(queue.get(head));
+            if (neighbours.size() < MIN_POINTS) {
+                continue;
+            }
+            for (int i = 0; i < neighbours.size(); i++) {
+                int neighbour = neighbours.get(i);
+                if (labels[neighbour] == UNVISITED || labels[neighbour] == NOISE) {
+                    labels[neighbour] = cluster;
+                    queue.add(neighbour);
+                }
+            }
+        }
+    }
+
+    private IntList getNeighbours(int point) {
+        IntList neighbours = new IntList();
+        long row = getRow(latitudes[point]);
+        long column = getColumn(longitudes[point]);
+        for (long r = row - 1; r <= row + 1; r++) {
+            for (long c = column - 1; c <= column + 1; c++) {
+                IntList cell = grid.get(getCellKey(r, c));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    int other = cell.get(i);
+                    if (getDistance(point, latitudes[other], longitudes[other]) <= RADIUS) {
+                        neighbours.add(other);
+                    }
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    private int findNearestStayPoint(double latitude, double longitude) {
+        long row = getRow(latitude);
+        long column = getColumn(longitude);
+        int nearest = -1;
+        double nearestDistance = RADIUS;
+        for (long r = row - 1; r <= row + 1; r++) {
+            for (long c = column - 1; c <= column + 1; c++) {
+                IntList cell = grid.get(getCellKey(r, c));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    int other = cell.get(i);
+                    double distance = GeoMath.distance(latitude, longitude,
+                            latitudes[other], longitudes[other]);
+                    if (distance <= nearestDistance) {
+                        nearest = other;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private double getDistance(int point, double latitude, double longitude) {
+        return GeoMath.distance(latitudes[point], longitudes[point], latitude, longitude);
+    }
+
+    private double getMaxLatitude() {
+        double maxLatitude = 0;
+        for (double latitude : latitudes) {
+            maxLatitude = Math.max(maxLatitude, Math.abs(latitude));
+        }
+        return Math.min(maxLatitude, MAX_LATITUDE);
+    }
+
+    private IntList getCell(long key) {
+        IntList cell = grid.get(key);
+        if (cell == null) {
+            cell = new IntList();
+            grid.put(key, cell);
+        }
+        return cell;
+    }
+
+    private long getCellKey(double latitude, double longitude) {
+        return getCellKey(getRow(latitude), getColumn(longitude));
+    }
+
+    private long getCellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+
+    private long getRow(double latitude) {
+        return (long)Math.floor(latitude / cellHeight);
+    }
+
+    private long getColumn(double longitude) {
+        return (long)Math.floor(longitude / cellWidth);
+    }
+
+    private static class IntList {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
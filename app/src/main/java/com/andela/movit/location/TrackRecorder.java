@@ -0,0 +1,78 @@
+/**
+ * This class records the route travelled during a tracking session. Every raw fix is passed
+ * through a {@code TrackSimplifier}, and only the points it keeps are queued on the
+ * {@code MovementWriter}, so a route is stored at a fraction of its fixes while staying within
+ * the simplifier's tolerance of the path actually travelled.
+ * */
+
+package com.andela.movit.location;
+
+import android.content.Context;
+import android.location.Location;
+
+import com.andela.movit.data.MovementWriter;
+import com.andela.movit.models.TrackPoint;
+
+public class TrackRecorder {
+
+    private final MovementWriter movementWriter;
+
+    private final TrackSimplifier simplifier = new TrackSimplifier();
+
+    private long sessionId;
+
+    private boolean isRecording;
+
+    public TrackRecorder(Context context) {
+        movementWriter = MovementWriter.getInstance(context);
+    }
+
+    /**
+     * Starts recording a new route, ending the current one if there is one.
+     * */
+
+    public void startSession() {
+        stopSession();
+        sessionId = System.currentTimeMillis();
+        isRecording = true;
+    }
+
+    /**
+     * Ends the current route, saving its last point.
+     * */
+
+    public void stopSession() {
+        if (isRecording) {
+            isRecording = false;
+            save(simplifier.finish());
+        }
+    }
+
+    /**
+     * Returns the id of the current session, which is the time when it started, or 0 if no route
+     * is being recorded.
+     * */
+
+    public long getSessionId() {
+        return isRecording ? sessionId : 0;
+    }
+
+    /**
+     * Adds a raw fix to the current route. Fixes received while no route is being recorded are
+     * ignored.
+     * @param location the fix.
+     * */
+
+    public void addFix(Location location) {
+        if (isRecording) {
+            save(simplifier.add(new TrackPoint(sessionId, location.getTime(),
+                    location.getLatitude(), location.getLongitude())));
+        }
+    }
+
+    private void save(TrackPoint point) {
+        if (point != null) {
+            movementWriter.writeTrackPoint(point);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * This class simplifies a route as its points arrive, using the opening window algorithm. The
+ * last kept point anchors a window of the points received since. A new point is accepted into
+ * the window as long as every point in the window lies within the tolerance of the straight
+ * segment from the anchor to the new point; otherwise the newest point of the window is kept and
+ * becomes the new anchor. Every point that is left out therefore lies within the tolerance of the
+ * simplified route, and each point is decided with a bounded amount of work and memory.
+ * */
+
+package com.andela.movit.location;
+
+import com.andela.movit.models.TrackPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrackSimplifier {
+
+    /**
+     * The default tolerance, in metres, about as large as the error of a good GPS fix.
+     * */
+
+    public static final double DEFAULT_TOLERANCE = 10;
+
+    private static final int MAX_WINDOW = 100;
+
+    private final double tolerance;
+
+    private final List<TrackPoint> window = new ArrayList<>();
+
+    private TrackPoint anchor;
+
+    public TrackSimplifier() {
+        this(DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Constructs a {@code TrackSimplifier} object.
+     * @param tolerance the greatest distance (in metres) between a point that is left out and
+     * the simplified route.
+     * */
+
+    public TrackSimplifier(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Adds the next point of the route.
+     * @return a point that has to be kept, or null if no point can be kept yet.
+     * */
+
+    public TrackPoint add(TrackPoint point) {
+        if (anchor == null) {
+            anchor = point;
+            return point;
+        }
+        if (window.size() < MAX_WINDOW && fitsSegment(point)) {
+            window.add(point);
+            return null;
+        }
+        TrackPoint kept = window.isEmpty() ? point : window.get(window.size() - 1);
+        anchor = kept;
+        window.clear();
+        if (kept != point) {
+            window.add(point);
+        }
+        return kept;
+    }
+
+    /**
+     * Ends the route, and starts a new one.
+     * @return the last point of the route, if it has not been kept already, or null.
+     * */
+
+    public TrackPoint finish() {
+        TrackPoint last = window.isEmpty() ? null : window.get(window.size() - 1);
+        window.clear();
+        anchor = null;
+        return last;
+    }
+
+    private boolean fitsSegment(TrackPoint end) {
+        double endX = getX(end);
+        double endY = getY(end);
+        for (TrackPoint point : window) {
+            if (getDistanceToSegment(getX(point), getY(point), endX, endY) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double getDistanceToSegment(double x, double y, double endX, double endY) {
+        double lengthSquared = endX * endX + endY * endY;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, (x * endX + y * endY) / lengthSquared));
+        }
+        return Math.hypot(x - t * endX, y - t * endY);
+    }
+
+    private double getX(TrackPoint point) {
+        return GeoMath.longitudeToMetres(point.getLongitude() - anchor.getLongitude(),
+                anchor.getLatitude());
+    }
+
+    private double getY(TrackPoint point) {
+        return GeoMath.latitudeToMetres(point.getLatitude() - anchor.getLatitude());
+    }
+}
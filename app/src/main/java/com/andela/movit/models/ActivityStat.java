@@ -0,0 +1,60 @@
+/**
+ * This class stores the time spent on an activity during one statistics bucket, and optionally at
+ * one place. It stores the start of the bucket, the activity, the place, the total duration and
+ * the number of movements that ended in the bucket.
+ * */
+
+package com.andela.movit.models;
+
+public class ActivityStat {
+
+    private long bucketStart;
+
+    private String activityName;
+
+    private String placeName;
+
+    private long duration;
+
+    private int movementCount;
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getActivityName() {
+        return activityName;
+    }
+
+    public void setActivityName(String activityName) {
+        this.activityName = activityName;
+    }
+
+    public String getPlaceName() {
+        return placeName;
+    }
+
+    public void setPlaceName(String placeName) {
+        this.placeName = placeName;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public int getMovementCount() {
+        return movementCount;
+    }
+
+    public void setMovementCount(int movementCount) {
+        this.movementCount = movementCount;
+    }
+}
@@ -8,10 +8,14 @@ package com.andela.movit.models;
 
 public class Movement {
 
+    private long id;
+
     private String placeName;
 
     private String activityName;
 
+    private int activityId;
+
     private double latitude;
 
     private double longitude;
@@ -20,6 +24,40 @@ public class Movement {
 
     private long duration;
 
+    private long clusterId;
+
+    public Movement() {
+    }
+
+    /**
+     * Constructs a copy of another {@code Movement} object.
+     * @param movement the movement to copy.
+     * */
+
+    public Movement(Movement movement) {
+        this.id = movement.id;
+        this.placeName = movement.placeName;
+        this.activityName = movement.activityName;
+        this.activityId = movement.activityId;
+        this.latitude = movement.latitude;
+        this.longitude = movement.longitude;
+        this.timeStamp = movement.timeStamp;
+        this.duration = movement.duration;
+        this.clusterId = movement.clusterId;
+    }
+
+    /**
+     * Returns the database row id of the movement, or 0 if it has not been saved yet.
+     * */
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public long getTimeStamp() {
         return timeStamp;
     }
@@ -44,6 +82,19 @@ public class Movement {
         this.activityName = activityName;
     }
 
+    /**
+     * Returns the id of the activity, as defined in {@code ActivityTypes}, or 0 if the movement
+     * has not been saved yet.
+     * */
+
+    public int getActivityId() {
+        return activityId;
+    }
+
+    public void setActivityId(int activityId) {
+        this.activityId = activityId;
+    }
+
     public String getPlaceName() {
         return placeName;
     }
@@ -67,4 +118,17 @@ public class Movement {
     public void setLongitude(double longitude) {
         this.longitude = longitude;
     }
+
+    /**
+     * Returns the id of the place cluster the movement belongs to, or 0 if it is not near any
+     * known place.
+     * */
+
+    public long getClusterId() {
+        return clusterId;
+    }
+
+    public void setClusterId(long clusterId) {
+        this.clusterId = clusterId;
+    }
 }
@@ -0,0 +1,40 @@
+/**
+ * This class models a single point of a recorded route: a position fix and the tracking session
+ * it was recorded in.
+ * */
+
+package com.andela.movit.models;
+
+public class TrackPoint {
+
+    private final long sessionId;
+
+    private final long timeStamp;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    public TrackPoint(long sessionId, long timeStamp, double latitude, double longitude) {
+        this.sessionId = sessionId;
+        this.timeStamp = timeStamp;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public long getTimeStamp() {
+        return timeStamp;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
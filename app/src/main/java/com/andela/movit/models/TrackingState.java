@@ -0,0 +1,63 @@
+/**
+ * This class holds a snapshot of the tracking state shown by the tracker screen: the current
+ * location, the activity being tracked, when the current activity session started and whether
+ * tracking is on. Snapshots are immutable; every change produces a new snapshot.
+ * */
+
+package com.andela.movit.models;
+
+public class TrackingState {
+
+    private final Movement movement;
+
+    private final String activityName;
+
+    private final long sessionStart;
+
+    private final boolean isTracking;
+
+    /**
+     * Constructs a {@code TrackingState} object.
+     * @param movement the movement holding the current location, or null if it is not known yet.
+     * @param activityName the name of the activity being tracked.
+     * @param sessionStart the {@code SystemClock.elapsedRealtime} time at which the current
+     * activity session started.
+     * @param isTracking whether tracking is on.
+     * */
+
+    public TrackingState(Movement movement, String activityName, long sessionStart,
+                         boolean isTracking) {
+        this.movement = movement;
+        this.activityName = activityName;
+        this.sessionStart = sessionStart;
+        this.isTracking = isTracking;
+    }
+
+    public Movement getMovement() {
+        return movement;
+    }
+
+    public String getActivityName() {
+        return activityName;
+    }
+
+    public long getSessionStart() {
+        return sessionStart;
+    }
+
+    public boolean isTracking() {
+        return isTracking;
+    }
+
+    public TrackingState withMovement(Movement movement) {
+        return new TrackingState(movement, activityName, sessionStart, isTracking);
+    }
+
+    public TrackingState withActivityName(String activityName) {
+        return new TrackingState(movement, activityName, sessionStart, isTracking);
+    }
+
+    public TrackingState withSession(long sessionStart, boolean isTracking) {
+        return new TrackingState(movement, activityName, sessionStart, isTracking);
+    }
+}
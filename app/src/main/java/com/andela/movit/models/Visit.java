@@ -1,16 +1,31 @@
 /**
- * This class stores an aggregate of visits to a particular place. It stores the name of the place
- * and the total time spent at that duration.
+ * This class stores an aggregate of visits to a particular place. It stores the id and name of the
+ * place, the total time spent at that duration, the number of visits and when the place was last
+ * seen.
  * */
 
 package com.andela.movit.models;
 
 public class Visit {
 
+    private long clusterId;
+
     private String placeName;
 
     private long duration;
 
+    private int visitCount;
+
+    private long lastSeen;
+
+    public long getClusterId() {
+        return clusterId;
+    }
+
+    public void setClusterId(long clusterId) {
+        this.clusterId = clusterId;
+    }
+
     public String getPlaceName() {
         return placeName;
     }
@@ -26,4 +41,20 @@ public class Visit {
     public void setDuration(long duration) {
         this.duration = duration;
     }
+
+    public int getVisitCount() {
+        return visitCount;
+    }
+
+    public void setVisitCount(int visitCount) {
+        this.visitCount = visitCount;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(long lastSeen) {
+        this.lastSeen = lastSeen;
+    }
 }
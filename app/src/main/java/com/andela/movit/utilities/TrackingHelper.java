@@ -11,14 +11,12 @@ import android.content.Context;
 
 import com.andela.movit.R;
 import com.andela.movit.activityrecognition.RecognitionHelper;
-import com.andela.movit.data.DbAsync;
 import com.andela.movit.data.DbCallback;
-import com.andela.movit.data.DbOperation;
-import com.andela.movit.data.DbResult;
-import com.andela.movit.data.DbRepo;
+import com.andela.movit.data.MovementWriter;
 import com.andela.movit.location.IncomingStringCallback;
 import com.andela.movit.location.LocationCallback;
 import com.andela.movit.location.LocationHelper;
+import com.andela.movit.location.PlaceNameQueue;
 import com.andela.movit.models.Movement;
 
 public class TrackingHelper {
@@ -35,6 +33,10 @@ public class TrackingHelper {
 
     private long durationBeforeLogging;
 
+    private MovementWriter movementWriter;
+
+    private PlaceNameQueue placeNameQueue;
+
     public TrackingHelper(Context context) {
         this.context = context;
         initializeVariables();
@@ -43,6 +45,9 @@ public class TrackingHelper {
     private void initializeVariables() {
         locationHelper = new LocationHelper(context);
         recognitionHelper = new RecognitionHelper(context);
+        movementWriter = MovementWriter.getInstance(context);
+        movementWriter.setDbCallback(getDbCallback());
+        placeNameQueue = PlaceNameQueue.getInstance(context);
         currentActivity = "Unknown";
     }
 
@@ -56,12 +61,13 @@ public class TrackingHelper {
     }
 
     /**
-     * Stores the name of the current activity.
+     * Stores the name of the current activity, and adapts location sampling to it.
      * @param activity the current activity.
      * */
 
     public void setCurrentActivity(String activity) {
         currentActivity = activity;
+        locationHelper.setActivity(activity);
     }
 
     /**
@@ -92,8 +98,8 @@ public class TrackingHelper {
     }
 
     /**
-     * Appends the an activity name to the current stored {@code Movement} object, then writes
-     * it to the database.
+     * Appends the an activity name to the current stored {@code Movement} object, then queues
+     * it to be written to the database.
      * */
 
     public void logActivity(String activity, long elapsedTime) {
@@ -110,8 +116,7 @@ public class TrackingHelper {
 
     private void writeMovementToDatabase(Movement movement) {
         movement.setTimeStamp(System.currentTimeMillis());
-        DbAsync dbAsync = new DbAsync(getDbCallback());
-        dbAsync.execute(getInsertOperation(movement));
+        movementWriter.write(new Movement(movement));
     }
 
     /**
@@ -124,12 +129,13 @@ public class TrackingHelper {
     }
 
     /**
-     * Stops the tracking process.
+     * Stops the tracking process, and writes any movements that are still queued.
      * */
 
     public void stopTracking() {
         locationHelper.disconnect();
         recognitionHelper.disconnect();
+        movementWriter.flush();
     }
 
     public boolean hasTimeElapsed(long timeElapsed) {
@@ -145,6 +151,7 @@ public class TrackingHelper {
             @Override
             public void onOperationSuccess(Object result) {
                 FrameworkUtils.makeToast(context, "Activity logged successfully");
+                placeNameQueue.backfill();
             }
 
             @Override
@@ -152,14 +159,4 @@ public class TrackingHelper {
             }
         };
     }
-
-    private DbOperation getInsertOperation(final Movement movement) {
-        return new DbOperation() {
-            @Override
-            public DbResult execute() {
-                DbRepo repo = new DbRepo(context);
-                return new DbResult(repo.addMovement(movement), null);
-            }
-        };
-    }
 }
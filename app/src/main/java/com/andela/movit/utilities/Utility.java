@@ -14,6 +14,11 @@ public class Utility {
                 + Double.toString(movement.getLongitude());
     }
 
+    public static String getPlaceLabel(Movement movement) {
+        String placeName = movement.getPlaceName();
+        return placeName != null ? placeName : getCoordsString(movement);
+    }
+
     public static int[] getDateValues(Date date) {
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
@@ -1,18 +1,28 @@
 package com.andela.movit.views.adapters;
 
 import android.content.Context;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 
+import com.andela.movit.utilities.FrameworkUtils;
+import com.andela.movit.utilities.Utility;
+
 import java.util.List;
 
 public abstract class FillableAdapter<T> extends ArrayAdapter<T> {
 
+    private static final int DURATION_CACHE_SIZE = 256;
+
     protected Context context;
 
     protected List<T> items;
 
     protected int viewId;
 
+    private LruCache<Long, String> durationStrings = new LruCache<>(DURATION_CACHE_SIZE);
+
     public FillableAdapter(Context context, int resource, List<T> objects) {
         super(context, resource, objects);
         this.items = objects;
@@ -22,8 +32,37 @@ public abstract class FillableAdapter<T> extends ArrayAdapter<T> {
 
     public void fillItems(List<T> incomingItems) {
         items.clear();
-        for (T item : incomingItems) {
-            items.add(item);
+        items.addAll(incomingItems);
+    }
+
+    public void appendItems(List<T> incomingItems) {
+        items.addAll(incomingItems);
+    }
+
+    /**
+     * Returns a recycled row view if one is available, or inflates a new one otherwise.
+     * */
+
+    protected View getRowView(View convertView, ViewGroup parent) {
+        if (convertView != null) {
+            return convertView;
+        }
+        return FrameworkUtils.getInflater(context).inflate(viewId, parent, false);
+    }
+
+    /**
+     * Returns the formatted form of a duration, reusing strings that have already been built for
+     * the same number of whole seconds.
+     * @param duration the duration in milliseconds.
+     * */
+
+    protected String getDurationString(long duration) {
+        long seconds = duration / 1000;
+        String durationString = durationStrings.get(seconds);
+        if (durationString == null) {
+            durationString = Utility.getDurationString(duration);
+            durationStrings.put(seconds, durationString);
         }
+        return durationString;
     }
 }
@@ -11,38 +11,60 @@ import com.andela.movit.models.Movement;
 import com.andela.movit.utilities.FrameworkUtils;
 import com.andela.movit.utilities.Utility;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
 
 public class MovementAdapter extends FillableAdapter<Movement> {
 
-    @Override
-    public int getItemViewType(int position) {
-        return super.getItemViewType(position);
-    }
-
     public MovementAdapter(Context context, int resource, List<Movement> objects) {
         super(context, resource, objects);
     }
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        View view = FrameworkUtils.getInflater(context).inflate(viewId, null);
+        View view = getRowView(convertView, parent);
+        ViewHolder holder = getViewHolder(view);
         Movement movement = items.get(position);
-        TextView actView = (TextView)view.findViewById(R.id.label_activity);
         String activity = movement.getActivityName();
-        actView.setText(activity);
-        TextView locView = (TextView)view.findViewById(R.id.label_visit);
-        locView.setText(getDescription(movement));
-        ImageView icon = (ImageView)view.findViewById(R.id.icon_activity);
-        icon.setImageResource(FrameworkUtils.getIconId(activity));
+        holder.actView.setText(activity);
+        holder.locView.setText(getDescription(movement));
+        setIcon(holder, movement.getActivityId());
         return view;
     }
 
+    private ViewHolder getViewHolder(View view) {
+        ViewHolder holder = (ViewHolder)view.getTag();
+        if (holder == null) {
+            holder = new ViewHolder();
+            holder.actView = (TextView)view.findViewById(R.id.label_activity);
+            holder.locView = (TextView)view.findViewById(R.id.label_visit);
+            holder.icon = (ImageView)view.findViewById(R.id.icon_activity);
+            view.setTag(holder);
+        }
+        return holder;
+    }
+
+    private void setIcon(ViewHolder holder, int activityId) {
+        int iconId = FrameworkUtils.getIconId(activityId);
+        if (holder.iconId != iconId) {
+            holder.icon.setImageResource(iconId);
+            holder.iconId = iconId;
+        }
+    }
+
     private String getDescription(Movement movement) {
-        return movement.getPlaceName()
+        return Utility.getPlaceLabel(movement)
                 + ", for "
-                + Utility.getDurationString(movement.getDuration());
+                + getDurationString(movement.getDuration());
+    }
+
+    private static class ViewHolder {
+
+        private TextView actView;
+
+        private TextView locView;
+
+        private ImageView icon;
+
+        private int iconId;
     }
 }
@@ -0,0 +1,10 @@
+/**
+ * This interface defines an operation to be performed whenever a list needs the next page of
+ * items.
+ * */
+
+package com.andela.movit.views.adapters;
+
+public interface PageRequestCallback {
+    void onPageRequested();
+}
@@ -0,0 +1,37 @@
+/**
+ * This class defines a scroll listener that requests the next page of items whenever a list is
+ * scrolled close to the end of the items that have been loaded so far.
+ * */
+
+package com.andela.movit.views.adapters;
+
+import android.widget.AbsListView;
+
+public class PageScrollListener implements AbsListView.OnScrollListener {
+
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private PageRequestCallback callback;
+
+    /**
+     * Constructs a {@code PageScrollListener} object.
+     * @param callback the callback that will be invoked when more items are needed.
+     * */
+
+    public PageScrollListener(PageRequestCallback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                         int totalItemCount) {
+        if (totalItemCount > 0
+                && firstVisibleItem + visibleItemCount + PREFETCH_DISTANCE >= totalItemCount) {
+            callback.onPageRequested();
+        }
+    }
+}
@@ -7,8 +7,6 @@ import android.widget.TextView;
 
 import com.andela.movit.R;
 import com.andela.movit.models.Visit;
-import com.andela.movit.utilities.FrameworkUtils;
-import com.andela.movit.utilities.Utility;
 
 import java.util.List;
 
@@ -20,12 +18,29 @@ public class VisitAdapter extends FillableAdapter<Visit> {
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        View view = FrameworkUtils.getInflater(context).inflate(viewId, null);
+        View view = getRowView(convertView, parent);
+        ViewHolder holder = getViewHolder(view);
         Visit visit = items.get(position);
-        TextView locationView = (TextView)view.findViewById(R.id.label_visit);
-        locationView.setText(visit.getPlaceName());
-        TextView dateView = (TextView)view.findViewById(R.id.label_duration);
-        dateView.setText("Time spent: " + Utility.getDurationString(visit.getDuration()));
+        holder.locationView.setText(visit.getPlaceName());
+        holder.dateView.setText("Time spent: " + getDurationString(visit.getDuration()));
         return view;
     }
+
+    private ViewHolder getViewHolder(View view) {
+        ViewHolder holder = (ViewHolder)view.getTag();
+        if (holder == null) {
+            holder = new ViewHolder();
+            holder.locationView = (TextView)view.findViewById(R.id.label_visit);
+            holder.dateView = (TextView)view.findViewById(R.id.label_duration);
+            view.setTag(holder);
+        }
+        return holder;
+    }
+
+    private static class ViewHolder {
+
+        private TextView locationView;
+
+        private TextView dateView;
+    }
 }
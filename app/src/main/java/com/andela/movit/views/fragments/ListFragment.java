@@ -6,14 +6,19 @@ import android.widget.ListView;
 import android.widget.TextView;
 
 import com.andela.movit.views.adapters.FillableAdapter;
-import com.andela.movit.data.DbAsync;
 import com.andela.movit.data.DbCallback;
+import com.andela.movit.data.DbExecutor;
 import com.andela.movit.data.DbOperation;
+import com.andela.movit.data.DbTask;
+import com.andela.movit.views.adapters.PageRequestCallback;
+import com.andela.movit.views.adapters.PageScrollListener;
 
 import java.util.List;
 
 public class ListFragment<T> extends Fragment {
 
+    protected static final int PAGE_SIZE = 50;
+
     protected ListView listView;
 
     protected TextView noData;
@@ -24,26 +29,46 @@ public class ListFragment<T> extends Fragment {
 
     protected DbOperation dbOperation;
 
-    private DbCallback dbCallback = new DbCallback() {
-        @Override
-        public void onOperationSuccess(Object result) {
-            items = (List<T>)result;
-            fillAdapter();
-        }
+    private boolean isPaged;
 
-        @Override
-        public void onOperationFail(String errorMessage) {
-        }
-    };
+    private boolean hasMorePages;
+
+    private boolean isLoadingPage;
+
+    private int loadGeneration;
+
+    private DbTask loadTask;
+
+    private DbTask pageTask;
 
-    private void fillAdapter() {
-        if (items.size() > 0) {
-            adapter.fillItems(items);
-            adapter.notifyDataSetChanged();
-            toggleViews(true);
+    private DbCallback getDbCallback(final int generation, final boolean isNextPage) {
+        return new DbCallback() {
+            @Override
+            public void onOperationSuccess(Object result) {
+                if (generation == loadGeneration) {
+                    isLoadingPage = false;
+                    fillAdapter((List<T>)result, isNextPage);
+                }
+            }
+
+            @Override
+            public void onOperationFail(String errorMessage) {
+                if (generation == loadGeneration) {
+                    isLoadingPage = false;
+                }
+            }
+        };
+    }
+
+    private void fillAdapter(List<T> page, boolean isNextPage) {
+        hasMorePages = isPaged && page.size() >= PAGE_SIZE;
+        if (isNextPage) {
+            adapter.appendItems(page);
         } else {
-            toggleViews(false);
+            adapter.fillItems(page);
         }
+        adapter.notifyDataSetChanged();
+        toggleViews(adapter.getCount() > 0);
     }
 
     private void toggleViews(boolean movementsAvailable) {
@@ -56,8 +81,71 @@ public class ListFragment<T> extends Fragment {
         }
     }
 
+    /**
+     * Loads the items from the start. For paged lists, {@code dbOperation} should fetch the first
+     * page only, and the rest are fetched by {@code getNextPageOperation} as the list scrolls.
+     * */
+
     protected void loadItems() {
-        DbAsync dbAsync = new DbAsync(dbCallback);
-        dbAsync.execute(dbOperation);
+        cancelTasks();
+        loadGeneration++;
+        hasMorePages = false;
+        isLoadingPage = true;
+        loadTask = DbExecutor.getInstance()
+                .submit(dbOperation, getDbCallback(loadGeneration, false));
+    }
+
+    @Override
+    public void onDestroyView() {
+        cancelTasks();
+        super.onDestroyView();
+    }
+
+    private void cancelTasks() {
+        if (loadTask != null) {
+            loadTask.cancel();
+            loadTask = null;
+        }
+        if (pageTask != null) {
+            pageTask.cancel();
+            pageTask = null;
+        }
+    }
+
+    /**
+     * Makes the list fetch further pages on demand as it is scrolled towards the end.
+     * */
+
+    protected void enablePaging() {
+        isPaged = true;
+        listView.setOnScrollListener(new PageScrollListener(new PageRequestCallback() {
+            @Override
+            public void onPageRequested() {
+                loadNextPage();
+            }
+        }));
+    }
+
+    /**
+     * Returns the operation that fetches the page following the given item. Paged lists must
+     * override this method.
+     * @param lastItem the last item that has been loaded so far.
+     * */
+
+    protected DbOperation getNextPageOperation(T lastItem) {
+        return null;
+    }
+
+    private void loadNextPage() {
+        if (!hasMorePages || isLoadingPage) {
+            return;
+        }
+        T lastItem = adapter.getItem(adapter.getCount() - 1);
+        DbOperation nextPageOperation = getNextPageOperation(lastItem);
+        if (nextPageOperation != null) {
+            isLoadingPage = true;
+            pageTask = DbExecutor.getInstance()
+                    .submit(nextPageOperation, getDbCallback(loadGeneration, true));
+        }
     }
 }
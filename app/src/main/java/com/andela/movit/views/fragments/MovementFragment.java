@@ -32,8 +32,6 @@ public class MovementFragment extends ListFragment<Movement> {
 
     private Context context;
 
-    private DbRepo repo;
-
     private Date queryDate;
 
     @Override
@@ -64,15 +62,26 @@ public class MovementFragment extends ListFragment<Movement> {
         adapter = new MovementAdapter(context, R.layout.movement_item, items);
         listView.setAdapter(adapter);
         noData = (TextView)rootView.findViewById(R.id.no_movement);
+        enablePaging();
         setActivityTitle("Today");
     }
 
     private DbOperation getQueryOperation() {
+        return getPageOperation(null);
+    }
+
+    @Override
+    protected DbOperation getNextPageOperation(Movement lastItem) {
+        return getPageOperation(lastItem);
+    }
+
+    private DbOperation getPageOperation(final Movement after) {
+        final Date date = queryDate;
         return new DbOperation() {
             @Override
             public DbResult execute() {
-                repo = new DbRepo(context);
-                return new DbResult(repo.getMovementsByDate(queryDate), null);
+                DbRepo repo = DbRepo.getInstance(context);
+                return new DbResult(repo.getMovementsByDate(date, after, PAGE_SIZE), null);
             }
         };
     }
@@ -114,19 +123,8 @@ public class MovementFragment extends ListFragment<Movement> {
             Date date = Utility.generateDate(year, monthOfYear, dayOfMonth);
             setActivityTitle(Utility.getDateString(date));
             queryDate = date;
+            dbOperation = getQueryOperation();
             loadItems();
         }
     };
-
-    @Override
-    public void onPause() {
-        closeDb();
-        super.onPause();
-    }
-
-    private void closeDb() {
-        if (repo != null) {
-            repo.closeDatabase();
-        }
-    }
 }
@@ -3,10 +3,8 @@ package com.andela.movit.views.fragments;
 import android.app.Activity;
 import android.app.Fragment;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.os.SystemClock;
-import android.support.v4.content.LocalBroadcastManager;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -18,13 +16,12 @@ import android.widget.TextView;
 import com.andela.movit.Movit;
 import com.andela.movit.R;
 import com.andela.movit.background.TrackingService;
+import com.andela.movit.events.TrackingStateListener;
+import com.andela.movit.events.TrackingStateStream;
 import com.andela.movit.utilities.FrameworkUtils;
 import com.andela.movit.views.activities.SplashActivity;
-import com.andela.movit.location.IncomingStringCallback;
-import com.andela.movit.location.LocationCallback;
 import com.andela.movit.models.Movement;
-import com.andela.movit.receivers.LocationBroadcastReceiver;
-import com.andela.movit.receivers.StringBroadcastReceiver;
+import com.andela.movit.models.TrackingState;
 import com.andela.movit.utilities.Utility;
 
 import static com.andela.movit.config.Constants.*;
@@ -45,11 +42,7 @@ public class TrackerFragment extends Fragment {
 
     private Chronometer counter;
 
-    private Movement movement;
-
-    private StringBroadcastReceiver statementReceiver;
-
-    private LocationBroadcastReceiver locationReceiver;
+    private TrackingState renderedState;
 
     private ImageView activityIcon;
 
@@ -70,8 +63,7 @@ public class TrackerFragment extends Fragment {
         Movit app = Movit.getApp();
         if (app.isAppLaunched()) {
             initializeComponents();
-            movement = app.getInitialLocation();
-            displayLocation(movement);
+            displayLocation(app.getInitialLocation());
         } else {
             launchSplash();
         }
@@ -122,8 +114,7 @@ public class TrackerFragment extends Fragment {
     private void stopTracking() {
         sendCommandToService("STOP");
         toggleButton(false);
-        counter.stop();
-        counter.setBase(SystemClock.elapsedRealtime());
+        stopCounter();
     }
 
     private void sendCommandToService(String command) {
@@ -135,14 +126,19 @@ public class TrackerFragment extends Fragment {
     private void startTracking() {
         sendCommandToService("START");
         toggleButton(true);
-        restartCounter();
+        startCounter(SystemClock.elapsedRealtime());
     }
 
-    private void restartCounter() {
-        counter.setBase(SystemClock.elapsedRealtime());
+    private void startCounter(long base) {
+        counter.setBase(base);
         counter.start();
     }
 
+    private void stopCounter() {
+        counter.stop();
+        counter.setBase(SystemClock.elapsedRealtime());
+    }
+
     private void toggleButton(boolean isTracking) {
         if (isTracking) {
             trackButton.setImageResource(R.drawable.stop);
@@ -151,35 +147,40 @@ public class TrackerFragment extends Fragment {
         }
     }
 
-    private void registerStatementReceiver() {
-        statementReceiver = FrameworkUtils.registerStringReceiver(context, STATEMENT.getValue());
-        statementReceiver.setIncomingStringCallback(statementCallback);
-    }
-
-    private void registerLocationReceiver() {
-        locationReceiver = new LocationBroadcastReceiver(locationCallback);
-        IntentFilter filter = new IntentFilter(LOCATION.getValue());
-        LocalBroadcastManager.getInstance(context).registerReceiver(locationReceiver, filter);
-    }
-
-    private LocationCallback locationCallback = new LocationCallback() {
+    private TrackingStateListener stateListener = new TrackingStateListener() {
         @Override
-        public void onLocationDetected(Movement mv) {
-            movement = mv;
-            displayLocation(mv);
+        public void onStateChanged(TrackingState state) {
+            render(state);
+            Movit.getApp().setIdle(true);
         }
     };
 
-    private IncomingStringCallback statementCallback = new IncomingStringCallback() {
-        @Override
-        public void onStringArrive(String activityStatement) {
-            displayActivity(activityStatement);
-            Movit.getApp().setIdle(true);
+    private void render(TrackingState state) {
+        TrackingState previous = renderedState;
+        renderedState = state;
+        if (previous == null || previous.getMovement() != state.getMovement()) {
+            displayLocation(state.getMovement());
         }
-    };
+        displayActivity(state.getActivityName());
+        if (previous == null || previous.isTracking() != state.isTracking()
+                || previous.getSessionStart() != state.getSessionStart()) {
+            displaySession(state);
+        }
+    }
+
+    private void displaySession(TrackingState state) {
+        toggleButton(state.isTracking());
+        if (state.isTracking()) {
+            startCounter(state.getSessionStart());
+        } else {
+            stopCounter();
+        }
+    }
 
     private void displayLocation(Movement mv) {
-        locationName.setText(mv.getPlaceName());
+        if (mv != null) {
+            locationName.setText(Utility.getPlaceLabel(mv));
+        }
     }
 
     private void displayActivity(String activity) {
@@ -187,22 +188,20 @@ public class TrackerFragment extends Fragment {
             activityNameView.setText(activity);
             currentActivity = activity;
             activityIcon.setImageResource(FrameworkUtils.getIconId(activity));
-            restartCounter();
         }
     }
 
     @Override
     public void onPause() {
-        FrameworkUtils.unregisterReceiver(context, locationReceiver);
-        FrameworkUtils.unregisterReceiver(context, statementReceiver);
+        TrackingStateStream.getInstance().unsubscribe(stateListener);
+        renderedState = null;
         super.onPause();
     }
 
     @Override
     public void onResume() {
         toggleButton(Movit.getApp().isTracking());
-        registerLocationReceiver();
-        registerStatementReceiver();
+        TrackingStateStream.getInstance().subscribe(stateListener);
         super.onResume();
     }
 }
@@ -17,6 +17,7 @@ import com.andela.movit.data.DbRepo;
 import com.andela.movit.models.Movement;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.andela.movit.config.Constants.*;
 
@@ -26,7 +27,7 @@ public class VisitDetailsFragment extends ListFragment<Movement> {
 
     private String placeName;
 
-    private DbRepo repo;
+    private long clusterId;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -37,6 +38,7 @@ public class VisitDetailsFragment extends ListFragment<Movement> {
     @Override
     public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
         placeName = getActivity().getIntent().getStringExtra(CURRENT_VISIT.getValue());
+        clusterId = getActivity().getIntent().getLongExtra(CURRENT_PLACE.getValue(), 0);
         getActivity().setTitle(placeName);
         context = getActivity();
         items = new ArrayList<>();
@@ -46,11 +48,21 @@ public class VisitDetailsFragment extends ListFragment<Movement> {
     }
 
     private DbOperation getQueryOperation() {
+        return getPageOperation(null);
+    }
+
+    @Override
+    protected DbOperation getNextPageOperation(Movement lastItem) {
+        return getPageOperation(lastItem);
+    }
+
+    private DbOperation getPageOperation(final Movement after) {
         return new DbOperation() {
             @Override
             public DbResult execute() {
-                repo = new DbRepo(context);
-                return new DbResult(repo.getMovementsByLocation(placeName), null);
+                DbRepo repo = DbRepo.getInstance(context);
+                List<Movement> page = repo.getMovementsByCluster(clusterId, after, PAGE_SIZE);
+                return new DbResult(page, null);
             }
         };
     }
@@ -60,5 +72,6 @@ public class VisitDetailsFragment extends ListFragment<Movement> {
         adapter = new MovementAdapter(context, R.layout.movement_item, items);
         listView.setAdapter(adapter);
         noData = (TextView)view.findViewById(R.id.no_movement);
+        enablePaging();
     }
 }
@@ -28,8 +28,6 @@ public class VisitFragment extends ListFragment<Visit> {
 
     private View rootView;
 
-    private DbRepo repo;
-
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -61,6 +59,7 @@ public class VisitFragment extends ListFragment<Visit> {
             Visit visit = adapter.getItem(position);
             Intent intent = new Intent(context, VisitDetailsActivity.class);
             intent.putExtra(Constants.CURRENT_VISIT.getValue(), visit.getPlaceName());
+            intent.putExtra(Constants.CURRENT_PLACE.getValue(), visit.getClusterId());
             context.startActivity(intent);
         }
     };
@@ -68,7 +67,7 @@ public class VisitFragment extends ListFragment<Visit> {
     private DbOperation queryOperation = new DbOperation() {
         @Override
         public DbResult execute() {
-            repo = new DbRepo(context);
+            DbRepo repo = DbRepo.getInstance(context);
             return new DbResult(repo.getVisits(), null);
         }
     };
@@ -0,0 +1,63 @@
+package com.andela.movit.activityrecognition;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TransitionEngineTest {
+
+    private TransitionEngine engine;
+
+    private String standingStill = "Standing Still";
+
+    private String walking = "Walking";
+
+    @Before
+    public void setup() {
+        engine = TransitionEngine.getInstance();
+        engine.reset();
+    }
+
+    @Test
+    public void testFirstStableActivityIsReported() {
+        assertEquals(standingStill, detect(0, standingStill, 90));
+    }
+
+    @Test
+    public void testFlappingIsAbsorbed() {
+        detect(0, standingStill, 90);
+        assertNull(detect(5000, walking, 60));
+        assertNull(detect(10000, standingStill, 80));
+        assertNull(detect(15000, walking, 60));
+    }
+
+    @Test
+    public void testSustainedChangeIsReported() {
+        detect(0, standingStill, 90);
+        String transition = null;
+        for (long time = 5000; time <= 60000 && transition == null; time += 5000) {
+            transition = detect(time, walking, 95);
+        }
+        assertEquals(walking, transition);
+    }
+
+    @Test
+    public void testLowConfidenceIsIgnored() {
+        assertNull(detect(0, walking, 20));
+    }
+
+    @Test
+    public void testSharedNameCountsOnce() {
+        engine.startDetection(0);
+        engine.addSample(walking, 30, 0);
+        engine.addSample(walking, 40, 0);
+        assertNull(engine.evaluate(0));
+    }
+
+    private String detect(long time, String activityName, int confidence) {
+        engine.startDetection(time);
+        engine.addSample(activityName, confidence, time);
+        return engine.evaluate(time);
+    }
+}
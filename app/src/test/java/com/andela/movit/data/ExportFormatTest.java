@@ -0,0 +1,66 @@
+package com.andela.movit.data;
+
+import com.andela.movit.models.Movement;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class ExportFormatTest {
+
+    @Test
+    public void testCsvQuotesPlaceNames() throws IOException {
+        String line = write(ExportFormat.CSV, getMovement("Oshodi, \"Lagos\""));
+        assertEquals("7,1970-01-01T00:00:01.500Z,Walking,\"Oshodi, \"\"Lagos\"\"\","
+                + "6.5,3.25,60000\n", line);
+    }
+
+    @Test
+    public void testJsonLinesEscapesStrings() throws IOException {
+        String line = write(ExportFormat.JSON_LINES, getMovement("Ikeja\\\"GRA\"\n"));
+        assertEquals("{\"id\":7,\"time\":\"1970-01-01T00:00:01.500Z\",\"activity\":\"Walking\","
+                + "\"place\":\"Ikeja\\\\\\\"GRA\\\"\\n\",\"latitude\":6.5,\"longitude\":3.25,"
+                + "\"duration\":60000}\n", line);
+    }
+
+    @Test
+    public void testJsonLinesWritesMissingPlaceAsNull() throws IOException {
+        String line = write(ExportFormat.JSON_LINES, getMovement(null));
+        assertTrue(line.contains("\"place\":null"));
+    }
+
+    @Test
+    public void testGpxEscapesMarkup() throws IOException {
+        StringWriter writer = new StringWriter();
+        ExportFormat.GPX.writeHeader(writer);
+        ExportFormat.GPX.write(writer, getMovement("Tom & <Jerry>"),
+                ExportFormat.getTimeFormat());
+        ExportFormat.GPX.writeFooter(writer);
+        String gpx = writer.toString();
+        assertTrue(gpx.contains("<trkpt lat=\"6.5\" lon=\"3.25\">"
+                + "<time>1970-01-01T00:00:01.500Z</time>"));
+        assertTrue(gpx.contains("<desc>Tom &amp; &lt;Jerry&gt;</desc>"));
+        assertTrue(gpx.endsWith("</gpx>\n"));
+    }
+
+    private String write(ExportFormat format, Movement movement) throws IOException {
+        StringWriter writer = new StringWriter();
+        format.write(writer, movement, ExportFormat.getTimeFormat());
+        return writer.toString();
+    }
+
+    private Movement getMovement(String placeName) {
+        Movement movement = new Movement();
+        movement.setId(7);
+        movement.setTimeStamp(1500);
+        movement.setActivityName("Walking");
+        movement.setPlaceName(placeName);
+        movement.setLatitude(6.5);
+        movement.setLongitude(3.25);
+        movement.setDuration(60000);
+        return movement;
+    }
+}
@@ -0,0 +1,100 @@
+package com.andela.movit.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MovementArchiveTest {
+
+    private File directory;
+
+    private MovementArchive archive;
+
+    private long monthStart;
+
+    @Before
+    public void setup() throws Exception {
+        directory = File.createTempFile("archive", "");
+        assertTrue(directory.delete());
+        archive = new MovementArchive(directory);
+        monthStart = MovementArchive.getMonthStart(System.currentTimeMillis(), -6);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        archive.write(monthStart, getRows(1, 3));
+        List<ArchiveReader> readers = archive.open(monthStart, monthStart + 1);
+        assertEquals(1, readers.size());
+        ArchiveReader reader = readers.get(0);
+        assertEquals(3, reader.getRowCount());
+        for (int row = 0; row < 3; row++) {
+            assertEquals(row + 1, reader.getId(row));
+            assertEquals(monthStart + row * 60000, reader.getTimestamp(row));
+            assertEquals(-12833000 + row, reader.getLatitudeE7(row));
+            assertEquals(368166000, reader.getLongitudeE7(row));
+            assertEquals(1000 * (row + 1), reader.getDuration(row));
+            assertEquals(1, reader.getActivityId(row));
+            assertEquals(row, reader.getPlaceId(row));
+            assertEquals(0, reader.getClusterId(row));
+        }
+    }
+
+    @Test
+    public void testWriteMergesWithExistingMonth() throws Exception {
+        archive.write(monthStart, getRows(1, 2));
+        archive.write(monthStart, getRows(2, 2));
+        ArchiveReader reader = archive.openAll().get(0);
+        assertEquals(3, reader.getRowCount());
+        assertEquals(1, reader.getId(0));
+        assertEquals(3, reader.getId(2));
+    }
+
+    @Test
+    public void testWriteKeepsReusedIds() throws Exception {
+        archive.write(monthStart, getRows(1, 2));
+        ArchiveColumns reused = getRows(1, 1);
+        reused.timestamps[0] = monthStart + 3600000;
+        archive.write(monthStart, reused);
+        ArchiveReader reader = archive.openAll().get(0);
+        assertEquals(3, reader.getRowCount());
+        assertEquals(1, reader.getId(2));
+        assertEquals(2, archive.getMaxId());
+    }
+
+    @Test
+    public void testReaderKeptUntilMonthRewritten() throws Exception {
+        archive.write(monthStart, getRows(1, 2));
+        ArchiveReader reader = archive.openAll().get(0);
+        assertSame(reader, archive.open(monthStart, monthStart + 1).get(0));
+        archive.write(monthStart, getRows(3, 1));
+        ArchiveReader rewritten = archive.openAll().get(0);
+        assertNotSame(reader, rewritten);
+        assertEquals(3, rewritten.getRowCount());
+    }
+
+    @Test
+    public void testOpenSkipsOtherMonths() throws Exception {
+        archive.write(monthStart, getRows(1, 1));
+        long nextMonth = MovementArchive.getMonthStart(monthStart, 1);
+        assertEquals(0, archive.open(nextMonth, nextMonth + 1000).size());
+    }
+
+    private ArchiveColumns getRows(int firstId, int count) {
+        ArchiveColumns rows = new ArchiveColumns(count);
+        for (int row = 0; row < count; row++) {
+            long id = firstId + row;
+            rows.ids[row] = id;
+            rows.timestamps[row] = monthStart + (id - 1) * 60000;
+            rows.latitudes[row] = -12833000 + (int)(id - 1);
+            rows.longitudes[row] = 368166000;
+            rows.durations[row] = 1000 * id;
+            rows.activityIds[row] = 1;
+            rows.placeIds[row] = id - 1;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,41 @@
+package com.andela.movit.data;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpatialGridTest {
+
+    @Test
+    public void testNearbyPointsShareCell() {
+        assertEquals(SpatialGrid.getCell(-1.28331, 36.81665),
+                SpatialGrid.getCell(-1.28339, 36.81661));
+        assertNotEquals(SpatialGrid.getCell(-1.28331, 36.81665),
+                SpatialGrid.getCell(-1.28431, 36.81665));
+    }
+
+    @Test
+    public void testOneRangePerRow() {
+        List<long[]> ranges = SpatialGrid.getCellRanges(-1.2845, 36.8155, -1.2825, 36.8185);
+        assertEquals(3, ranges.size());
+        for (long[] range : ranges) {
+            assertEquals(3, range[1] - range[0]);
+        }
+        long cell = SpatialGrid.getCell(-1.2835, 36.8165);
+        boolean isCovered = false;
+        for (long[] range : ranges) {
+            isCovered |= cell >= range[0] && cell <= range[1];
+        }
+        assertTrue(isCovered);
+    }
+
+    @Test
+    public void testTallBoxUsesSingleRange() {
+        List<long[]> ranges = SpatialGrid.getCellRanges(-10, 36, 10, 37);
+        assertEquals(1, ranges.size());
+        assertTrue(ranges.get(0)[0] <= SpatialGrid.getCell(0, 36.5));
+        assertTrue(ranges.get(0)[1] >= SpatialGrid.getCell(0, 36.5));
+    }
+}
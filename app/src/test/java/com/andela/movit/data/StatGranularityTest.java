@@ -0,0 +1,44 @@
+package com.andela.movit.data;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class StatGranularityTest {
+
+    @Test
+    public void testHourBucket() {
+        long time = getTime(2016, Calendar.MAY, 18, 14, 35);
+        assertEquals(getTime(2016, Calendar.MAY, 18, 14, 0),
+                StatGranularity.HOUR.getBucketStart(time));
+    }
+
+    @Test
+    public void testDayBucket() {
+        long time = getTime(2016, Calendar.MAY, 18, 14, 35);
+        long dayStart = getTime(2016, Calendar.MAY, 18, 0, 0);
+        assertEquals(dayStart, StatGranularity.DAY.getBucketStart(time));
+        assertEquals(getTime(2016, Calendar.MAY, 19, 0, 0),
+                StatGranularity.DAY.getNextBucketStart(dayStart));
+    }
+
+    @Test
+    public void testWeekBucketStartsOnFirstDayOfWeek() {
+        long time = getTime(2016, Calendar.MAY, 18, 14, 35);
+        long weekStart = StatGranularity.WEEK.getBucketStart(time);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(weekStart);
+        assertEquals(calendar.getFirstDayOfWeek(), calendar.get(Calendar.DAY_OF_WEEK));
+        assertTrue(weekStart <= time);
+        assertTrue(StatGranularity.WEEK.getNextBucketStart(weekStart) > time);
+    }
+
+    private long getTime(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
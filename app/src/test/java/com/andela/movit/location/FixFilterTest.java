@@ -0,0 +1,82 @@
+package com.andela.movit.location;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FixFilterTest {
+
+    private static final double LATITUDE = 6.5244;
+
+    private static final double LONGITUDE = 3.3792;
+
+    @Test
+    public void testFirstFixIsReported() {
+        FixFilter filter = new FixFilter();
+        assertEquals(FixFilter.MOVED, filter.filter(LATITUDE, LONGITUDE, 10, 0));
+        assertEquals(LATITUDE, filter.getLatitude(), 1e-9);
+    }
+
+    @Test
+    public void testInaccurateFixIsRejected() {
+        FixFilter filter = new FixFilter();
+        assertEquals(FixFilter.REJECTED, filter.filter(LATITUDE, LONGITUDE, 500, 0));
+    }
+
+    @Test
+    public void testStationaryJitterIsSuppressed() {
+        FixFilter filter = new FixFilter();
+        Random random = new Random(7);
+        filter.filter(LATITUDE, LONGITUDE, 10, 0);
+        int moves = 0;
+        for (int i = 1; i <= 120; i++) {
+            double north = random.nextGaussian() * 8;
+            double east = random.nextGaussian() * 8;
+            if (filter.filter(LATITUDE + GeoMath.metresToLatitude(north),
+                    LONGITUDE + GeoMath.metresToLongitude(east, LATITUDE), 10, i * 1000)
+                    == FixFilter.MOVED) {
+                moves++;
+            }
+        }
+        assertTrue("moves " + moves, moves <= 2);
+    }
+
+    @Test
+    public void testSpeedOutlierIsRejected() {
+        FixFilter filter = new FixFilter();
+        filter.filter(LATITUDE, LONGITUDE, 10, 0);
+        double farLatitude = LATITUDE + GeoMath.metresToLatitude(5000);
+        assertEquals(FixFilter.REJECTED, filter.filter(farLatitude, LONGITUDE, 10, 1000));
+        assertEquals(LATITUDE, filter.getLatitude(), 1e-9);
+    }
+
+    @Test
+    public void testRepeatedJumpIsAccepted() {
+        FixFilter filter = new FixFilter();
+        filter.filter(LATITUDE, LONGITUDE, 10, 0);
+        double farLatitude = LATITUDE + GeoMath.metresToLatitude(5000);
+        filter.filter(farLatitude, LONGITUDE, 10, 1000);
+        filter.filter(farLatitude, LONGITUDE, 10, 2000);
+        assertEquals(FixFilter.MOVED, filter.filter(farLatitude, LONGITUDE, 10, 3000));
+        assertEquals(farLatitude, filter.getLatitude(), 1e-9);
+    }
+
+    @Test
+    public void testWalkingIsTracked() {
+        FixFilter filter = new FixFilter();
+        filter.filter(LATITUDE, LONGITUDE, 5, 0);
+        int moves = 0;
+        for (int i = 1; i <= 60; i++) {
+            double north = i * 1.5;
+            if (filter.filter(LATITUDE + GeoMath.metresToLatitude(north), LONGITUDE, 5, i * 1000)
+                    == FixFilter.MOVED) {
+                moves++;
+            }
+        }
+        assertTrue("moves " + moves, moves >= 5);
+        double smoothedNorth = GeoMath.latitudeToMetres(filter.getLatitude() - LATITUDE);
+        assertEquals(90, smoothedNorth, 15);
+    }
+}
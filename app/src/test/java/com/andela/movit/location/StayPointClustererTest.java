@@ -0,0 +1,73 @@
+package com.andela.movit.location;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StayPointClustererTest {
+
+    private static final double METRE = 1.0 / 111195;
+
+    @Test
+    public void testNearbyStaysFormOnePlace() {
+        double[] latitudes = {0, 10 * METRE, 20 * METRE, 30 * METRE};
+        double[] longitudes = {36, 36, 36, 36};
+        boolean[] isStay = {true, true, true, true};
+        StayPointClusterer clusterer = new StayPointClusterer(latitudes, longitudes, isStay);
+        int[] labels = clusterer.cluster();
+        assertEquals(1, clusterer.getClusterCount());
+        for (int label : labels) {
+            assertEquals(0, label);
+        }
+    }
+
+    @Test
+    public void testDistantStaysFormSeparatePlaces() {
+        double[] latitudes = {0, 10 * METRE, 20 * METRE,
+                1000 * METRE, 1010 * METRE, 1020 * METRE};
+        double[] longitudes = {36, 36, 36, 36, 36, 36};
+        boolean[] isStay = {true, true, true, true, true, true};
+        StayPointClusterer clusterer = new StayPointClusterer(latitudes, longitudes, isStay);
+        int[] labels = clusterer.cluster();
+        assertEquals(labels[0], labels[2]);
+        assertEquals(labels[3], labels[5]);
+        assertNotEquals(labels[0], labels[3]);
+        assertEquals(2, clusterer.getClusterCount());
+    }
+
+    @Test
+    public void testSparseStaysAreNotPlaces() {
+        double[] latitudes = {0, 10 * METRE, 1000 * METRE};
+        double[] longitudes = {36, 36, 36};
+        boolean[] isStay = {true, true, true};
+        StayPointClusterer clusterer = new StayPointClusterer(latitudes, longitudes, isStay);
+        int[] labels = clusterer.cluster();
+        assertEquals(0, clusterer.getClusterCount());
+        for (int label : labels) {
+            assertEquals(StayPointClusterer.NO_CLUSTER, label);
+        }
+    }
+
+    @Test
+    public void testMovingPointsJoinNearbyPlaceOnly() {
+        double[] latitudes = {0, 10 * METRE, 20 * METRE, 30 * METRE, 500 * METRE};
+        double[] longitudes = {36, 36, 36, 36, 36};
+        boolean[] isStay = {true, true, true, false, false};
+        int[] labels = new StayPointClusterer(latitudes, longitudes, isStay).cluster();
+        assertEquals(0, labels[0]);
+        assertEquals(labels[0], labels[3]);
+        assertEquals(StayPointClusterer.NO_CLUSTER, labels[4]);
+    }
+
+    @Test
+    public void testBorderStayJoinsCoreCluster() {
+        double[] latitudes = {0, 45 * METRE, 50 * METRE, 55 * METRE, 90 * METRE};
+        double[] longitudes = {36, 36, 36, 36, 36};
+        boolean[] isStay = {true, true, true, true, true};
+        StayPointClusterer clusterer = new StayPointClusterer(latitudes, longitudes, isStay);
+        int[] labels = clusterer.cluster();
+        assertEquals(1, clusterer.getClusterCount());
+        assertEquals(labels[2], labels[0]);
+        assertEquals(labels[2], labels[4]);
+    }
+}
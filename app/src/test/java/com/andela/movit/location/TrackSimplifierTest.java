@@ -0,0 +1,114 @@
+package com.andela.movit.location;
+
+import com.andela.movit.models.TrackPoint;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrackSimplifierTest {
+
+    private static final double LATITUDE = 6.5244;
+
+    private static final double LONGITUDE = 3.3792;
+
+    @Test
+    public void testStraightLineKeepsEnds() {
+        List<TrackPoint> route = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            route.add(getPoint(i, i * 10, (i % 2) * 3));
+        }
+        List<TrackPoint> kept = simplify(route, TrackSimplifier.DEFAULT_TOLERANCE);
+        assertEquals(2, kept.size());
+        assertSame(route.get(0), kept.get(0));
+        assertSame(route.get(49), kept.get(1));
+    }
+
+    @Test
+    public void testCornerIsKept() {
+        List<TrackPoint> route = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            route.add(getPoint(i, i * 10, 0));
+        }
+        for (int i = 1; i <= 20; i++) {
+            route.add(getPoint(20 + i, 200, i * 10));
+        }
+        List<TrackPoint> kept = simplify(route, 5);
+        assertEquals(3, kept.size());
+        assertSame(route.get(20), kept.get(1));
+    }
+
+    @Test
+    public void testErrorStaysWithinTolerance() {
+        Random random = new Random(42);
+        List<TrackPoint> route = new ArrayList<>();
+        double x = 0;
+        double y = 0;
+        double heading = 0;
+        for (int i = 0; i < 2000; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            x += Math.cos(heading) * 5 + random.nextGaussian() * 2;
+            y += Math.sin(heading) * 5 + random.nextGaussian() * 2;
+            route.add(getPoint(i, x, y));
+        }
+        double tolerance = 8;
+        List<TrackPoint> kept = simplify(route, tolerance);
+        assertTrue(kept.size() < route.size() / 3);
+        int segment = 0;
+        for (TrackPoint point : route) {
+            while (point.getTimeStamp() > kept.get(segment + 1).getTimeStamp()) {
+                segment++;
+            }
+            double error = getDistanceToSegment(point, kept.get(segment), kept.get(segment + 1));
+            assertTrue("error " + error, error <= tolerance + 0.01);
+        }
+    }
+
+    private List<TrackPoint> simplify(List<TrackPoint> route, double tolerance) {
+        TrackSimplifier simplifier = new TrackSimplifier(tolerance);
+        List<TrackPoint> kept = new ArrayList<>();
+        for (TrackPoint point : route) {
+            TrackPoint keptPoint = simplifier.add(point);
+            if (keptPoint != null) {
+                kept.add(keptPoint);
+            }
+        }
+        TrackPoint last = simplifier.finish();
+        if (last != null) {
+            kept.add(last);
+        }
+        return kept;
+    }
+
+    private TrackPoint getPoint(long time, double east, double north) {
+        return new TrackPoint(1, time, LATITUDE + GeoMath.metresToLatitude(north),
+                LONGITUDE + GeoMath.metresToLongitude(east, LATITUDE));
+    }
+
+    private double getDistanceToSegment(TrackPoint point, TrackPoint start, TrackPoint end) {
+        double x = getX(point);
+        double y = getY(point);
+        double startX = getX(start);
+        double startY = getY(start);
+        double dx = getX(end) - startX;
+        double dy = getY(end) - startY;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, ((x - startX) * dx + (y - startY) * dy) / lengthSquared));
+        }
+        return Math.hypot(x - startX - t * dx, y - startY - t * dy);
+    }
+
+    private double getX(TrackPoint point) {
+        return GeoMath.longitudeToMetres(point.getLongitude() - LONGITUDE, LATITUDE);
+    }
+
+    private double getY(TrackPoint point) {
+        return GeoMath.latitudeToMetres(point.getLatitude() - LATITUDE);
+    }
+}